@@ -0,0 +1,79 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class CustomerFixtures {
+
+    private CustomerFixtures() {
+    }
+
+    static Validator validator() {
+        return Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    static String name(long i) {
+        return "Name" + (i % 50_000);
+    }
+
+    static String family(long i) {
+        return "Family" + i;
+    }
+
+    static Customer customer(long i) {
+        if (i % 2 == 0) {
+            RealCustomer customer = new RealCustomer();
+            customer.setName(name(i));
+            customer.setFamily(family(i));
+            customer.setPhoneNumber("+45 " + i);
+            customer.setNationality("Danish");
+            return customer;
+        }
+        LegalCustomer customer = new LegalCustomer();
+        customer.setName(name(i));
+        customer.setFamily(family(i));
+        customer.setPhoneNumber("+45 " + i);
+        customer.setIndustry("Tech");
+        return customer;
+    }
+
+    static List<Customer> customers(long from, int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (long i = from; i < from + count; i++) {
+            customers.add(customer(i));
+        }
+        return customers;
+    }
+
+    static CustomerDto realCustomerDto() {
+        RealCustomerDto dto = new RealCustomerDto();
+        dto.setId(42L);
+        dto.setName("John");
+        dto.setFamily("Doe");
+        dto.setPhoneNumber("+1234567890");
+        dto.setType(CustomerType.REAL);
+        dto.setNationality("British");
+        return dto;
+    }
+
+    static CustomerDto legalCustomerDto() {
+        LegalCustomerDto dto = new LegalCustomerDto();
+        dto.setId(43L);
+        dto.setName("Acme");
+        dto.setFamily("Corp");
+        dto.setPhoneNumber("+1234567891");
+        dto.setType(CustomerType.LEGAL);
+        dto.setIndustry("Tech");
+        return dto;
+    }
+}
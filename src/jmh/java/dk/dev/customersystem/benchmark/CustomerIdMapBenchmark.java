@@ -0,0 +1,129 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.memory.ConcurrentLongObjectMap;
+import dk.dev.customersystem.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the id map used by the in-memory DAO before ({@link ConcurrentHashMap} with boxed
+ * keys) and after ({@link ConcurrentLongObjectMap}). Run with {@code -prof gc} to see the
+ * allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerIdMapBenchmark {
+
+    @Param({"ConcurrentHashMap", "ConcurrentLongObjectMap"})
+    public String map;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private IdMap ids;
+
+    @Setup(Level.Trial)
+    public void load() {
+        ids = map.equals("ConcurrentHashMap") ? new BoxedIdMap() : new PrimitiveIdMap();
+        for (long i = 0; i < size; i++) {
+            Customer customer = CustomerFixtures.customer(i);
+            customer.setId(i + 1);
+            ids.put(i + 1, customer);
+        }
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(size) + 1;
+    }
+
+    @Benchmark
+    public Customer get() {
+        return ids.get(randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer getContended() {
+        return ids.get(randomId());
+    }
+
+    @Benchmark
+    public boolean containsMissing() {
+        return ids.contains(size + randomId());
+    }
+
+    @Benchmark
+    public Customer replace() {
+        long id = randomId();
+        return ids.put(id, ids.get(id));
+    }
+
+    private interface IdMap {
+
+        Customer get(long id);
+
+        boolean contains(long id);
+
+        Customer put(long id, Customer customer);
+    }
+
+    private static final class BoxedIdMap implements IdMap {
+
+        private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
+
+        @Override
+        public Customer get(long id) {
+            return customers.get(id);
+        }
+
+        @Override
+        public boolean contains(long id) {
+            return customers.containsKey(id);
+        }
+
+        @Override
+        public Customer put(long id, Customer customer) {
+            return customers.compute(id, (key, previous) -> customer);
+        }
+    }
+
+    private static final class PrimitiveIdMap implements IdMap {
+
+        private final ConcurrentLongObjectMap<Customer> customers = new ConcurrentLongObjectMap<>();
+
+        @Override
+        public Customer get(long id) {
+            return customers.get(id);
+        }
+
+        @Override
+        public boolean contains(long id) {
+            return customers.containsKey(id);
+        }
+
+        @Override
+        public Customer put(long id, Customer customer) {
+            return customers.compute(id, previous -> customer);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerInMemoryDaoBenchmark {
+
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private CustomerInMemoryDao dao;
+
+    @Setup(Level.Trial)
+    public void load() {
+        dao = new CustomerInMemoryDao(CustomerFixtures.validator());
+        for (int from = 0; from < size; from += LOAD_BATCH) {
+            dao.saveAll(CustomerFixtures.customers(from, Math.min(LOAD_BATCH, size - from)));
+        }
+    }
+
+    private long randomIndex() {
+        return ThreadLocalRandom.current().nextLong(size);
+    }
+
+    @Benchmark
+    public Optional<Customer> findById() {
+        return dao.findById(randomIndex() + 1);
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        return dao.existsById(randomIndex() + 1);
+    }
+
+    @Benchmark
+    public boolean existsByFullName() {
+        long i = randomIndex();
+        return dao.existsByNameIgnoreCaseAndFamilyIgnoreCase(CustomerFixtures.name(i).toUpperCase(), CustomerFixtures.family(i));
+    }
+
+    @Benchmark
+    public List<Customer> findByName() {
+        return dao.findByNameIgnoreCase(CustomerFixtures.name(randomIndex()));
+    }
+
+    @Benchmark
+    public List<Customer> findPage() {
+        return dao.findPage(randomIndex(), 100);
+    }
+
+    @Benchmark
+    public Customer saveExisting() {
+        long i = randomIndex();
+        Customer customer = CustomerFixtures.customer(i);
+        customer.setId(i + 1);
+        return dao.save(customer);
+    }
+
+    @Benchmark
+    public Optional<Customer> insertDuplicate() {
+        return dao.insertIfAbsent(CustomerFixtures.customer(randomIndex()));
+    }
+}
@@ -0,0 +1,111 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.impl.CustomerJdbcDao;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerJdbcDaoBenchmark {
+
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private EmbeddedDatabase database;
+    private CustomerJdbcDao dao;
+    private List<Long> ids;
+    private final AtomicLong nextNew = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void load() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        dao = new CustomerJdbcDao(jdbc, CustomerFixtures.validator());
+        for (int from = 0; from < size; from += LOAD_BATCH) {
+            dao.saveAll(CustomerFixtures.customers(from, Math.min(LOAD_BATCH, size - from)));
+        }
+        ids = jdbc.queryForList("SELECT id FROM customer ORDER BY id", Long.class);
+        nextNew.set(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        database.shutdown();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Optional<Customer> findById() {
+        return dao.findById(ids.get(randomIndex()));
+    }
+
+    @Benchmark
+    public List<Customer> findByName() {
+        return dao.findByNameIgnoreCase(CustomerFixtures.name(randomIndex()));
+    }
+
+    @Benchmark
+    public List<Customer> findPage() {
+        return dao.findPage(ids.get(randomIndex()), 100);
+    }
+
+    @Benchmark
+    public List<CustomerView> findViewPage() {
+        return dao.findViewPage(ids.get(randomIndex()), 100);
+    }
+
+    @Benchmark
+    public boolean existsByFullName() {
+        int i = randomIndex();
+        return dao.existsByNameIgnoreCaseAndFamilyIgnoreCase(CustomerFixtures.name(i), CustomerFixtures.family(i));
+    }
+
+    @Benchmark
+    public int update() {
+        int i = randomIndex();
+        Customer customer = CustomerFixtures.customer(i);
+        customer.setId(ids.get(i));
+        return dao.update(customer);
+    }
+
+    @Benchmark
+    public Optional<Customer> insert() {
+        return dao.insertIfAbsent(CustomerFixtures.customer(nextNew.getAndIncrement()));
+    }
+}
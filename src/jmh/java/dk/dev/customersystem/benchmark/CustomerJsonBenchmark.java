@@ -0,0 +1,79 @@
+package dk.dev.customersystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.json.CustomerJsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer DTOs through Jackson's reflective bean codec with {@code @JsonTypeInfo}, and through
+ * the hand-written {@link CustomerJsonModule}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    @Param({"reflective", "module"})
+    public String codec;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private CustomerDto realCustomer;
+    private CustomerDto legalCustomer;
+    private byte[] realCustomerJson;
+    private byte[] legalCustomerJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (codec.equals("module")) {
+            objectMapper.registerModule(new CustomerJsonModule());
+        }
+        writer = objectMapper.writerFor(CustomerDto.class);
+        reader = objectMapper.readerFor(CustomerDto.class);
+        realCustomer = CustomerFixtures.realCustomerDto();
+        legalCustomer = CustomerFixtures.legalCustomerDto();
+        realCustomerJson = writer.writeValueAsBytes(realCustomer);
+        legalCustomerJson = writer.writeValueAsBytes(legalCustomer);
+    }
+
+    @Benchmark
+    public byte[] serializeReal() throws JsonProcessingException {
+        return writer.writeValueAsBytes(realCustomer);
+    }
+
+    @Benchmark
+    public byte[] serializeLegal() throws JsonProcessingException {
+        return writer.writeValueAsBytes(legalCustomer);
+    }
+
+    @Benchmark
+    public CustomerDto deserializeReal() throws IOException {
+        return reader.readValue(realCustomerJson);
+    }
+
+    @Benchmark
+    public CustomerDto deserializeLegal() throws IOException {
+        return reader.readValue(legalCustomerJson);
+    }
+}
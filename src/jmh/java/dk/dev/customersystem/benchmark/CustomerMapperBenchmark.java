@@ -0,0 +1,57 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.mapper.CustomerMapper;
+import dk.dev.customersystem.mapper.CustomerMapperImpl;
+import dk.dev.customersystem.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private final CustomerMapper mapper = new CustomerMapperImpl();
+    private final Customer realCustomer = withId(CustomerFixtures.customer(0));
+    private final Customer legalCustomer = withId(CustomerFixtures.customer(1));
+    private final CustomerDto realCustomerDto = CustomerFixtures.realCustomerDto();
+    private final CustomerDto legalCustomerDto = CustomerFixtures.legalCustomerDto();
+
+    private static Customer withId(Customer customer) {
+        customer.setId(7L);
+        return customer;
+    }
+
+    @Benchmark
+    public CustomerDto realToDto() {
+        return mapper.toDto(realCustomer);
+    }
+
+    @Benchmark
+    public CustomerDto legalToDto() {
+        return mapper.toDto(legalCustomer);
+    }
+
+    @Benchmark
+    public Customer realToEntity() {
+        return mapper.toEntity(realCustomerDto);
+    }
+
+    @Benchmark
+    public Customer legalToEntity() {
+        return mapper.toEntity(legalCustomerDto);
+    }
+}
@@ -0,0 +1,80 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.search.CustomerSearchIndex;
+import dk.dev.customersystem.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead queries against a {@link CustomerSearchIndex} holding {@code size} customers; the
+ * target is well under 10 ms per query at 5M customers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CustomerSearchIndexBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int size;
+
+    private CustomerSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void load() {
+        index = new CustomerSearchIndex();
+        List<Customer> batch = new ArrayList<>(10_000);
+        for (long i = 0; i < size; i++) {
+            Customer customer = CustomerFixtures.customer(i);
+            customer.setId(i + 1);
+            batch.add(customer);
+            if (batch.size() == 10_000) {
+                index.putAll(batch);
+                batch.clear();
+            }
+        }
+        index.putAll(batch);
+    }
+
+    private long randomIndex() {
+        return ThreadLocalRandom.current().nextLong(size);
+    }
+
+    @Benchmark
+    public long[] shortPrefix() {
+        return index.search("name1", 10, false);
+    }
+
+    @Benchmark
+    public long[] nameAndFamilyPrefix() {
+        long i = randomIndex();
+        return index.search(CustomerFixtures.name(i) + " " + CustomerFixtures.family(i).substring(0, 8), 10, false);
+    }
+
+    @Benchmark
+    public long[] phonePrefix() {
+        return index.search("+45 " + randomIndex() / 100, 10, false);
+    }
+
+    @Benchmark
+    public long[] fuzzyMiss() {
+        return index.search("nmae" + randomIndex() % 50_000, 10, true);
+    }
+}
@@ -0,0 +1,77 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.dao.journal.CustomerJournal;
+import dk.dev.customersystem.dao.memory.BinaryCustomerStore;
+import dk.dev.customersystem.dao.memory.CustomerStore;
+import dk.dev.customersystem.dao.memory.ObjectCustomerStore;
+import dk.dev.customersystem.dao.memory.StorageMode;
+import dk.dev.customersystem.model.Customer;
+import jakarta.validation.Validator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+
+/**
+ * Measures the retained heap of each {@link StorageMode}, for the store on its own and for the
+ * whole in-memory DAO including its name and id indexes. Not a JMH benchmark: it fills each
+ * structure once and compares the live heap after full GCs.
+ * <pre>
+ * mvn -P jmh test-compile exec:exec@footprint -Dfootprint.sizes="1000000 10000000"
+ * </pre>
+ */
+public final class CustomerStoreFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final int LOAD_BATCH = 10_000;
+
+    private CustomerStoreFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Validator validator = CustomerFixtures.validator();
+        System.out.printf("%-8s %12s %14s %12s %14s %12s%n",
+                "storage", "customers", "store bytes", "bytes/cust", "dao bytes", "bytes/cust");
+        String sizes = args.length > 0 ? String.join(" ", args) : "1000000 10000000";
+        for (String arg : sizes.trim().split("\\s+")) {
+            int size = Integer.parseInt(arg);
+            for (StorageMode mode : StorageMode.values()) {
+                long baseline = usedHeap();
+                CustomerStore store = newStore(mode);
+                for (int i = 0; i < size; i++) {
+                    Customer customer = CustomerFixtures.customer(i);
+                    customer.setId(i + 1L);
+                    store.compute(customer.getId(), previous -> customer);
+                }
+                long storeBytes = usedHeap() - baseline;
+                Reference.reachabilityFence(store);
+                store = null;
+
+                baseline = usedHeap();
+                CustomerInMemoryDao dao = new CustomerInMemoryDao(validator, newStore(mode), CustomerJournal.NONE);
+                for (int from = 0; from < size; from += LOAD_BATCH) {
+                    dao.saveAll(CustomerFixtures.customers(from, Math.min(LOAD_BATCH, size - from)));
+                }
+                long daoBytes = usedHeap() - baseline;
+                Reference.reachabilityFence(dao);
+                dao = null;
+
+                System.out.printf("%-8s %12d %14d %12d %14d %12d%n", mode, size,
+                        storeBytes, storeBytes / size, daoBytes, daoBytes / size);
+            }
+        }
+    }
+
+    private static CustomerStore newStore(StorageMode mode) {
+        return mode == StorageMode.BINARY ? new BinaryCustomerStore() : new ObjectCustomerStore();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,94 @@
+package dk.dev.customersystem.benchmark;
+
+import dk.dev.customersystem.dao.impl.CustomerJdbcDao;
+import dk.dev.customersystem.dao.impl.CustomerRowMapper;
+import dk.dev.customersystem.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Case-insensitive lookups at 1M rows, written the way CustomerJdbcDao used to ({@code before},
+ * comparing {@code LOWER(column)}, a scan) and the way it does now ({@code after}, comparing the
+ * generated lower-case columns covered by the full name index).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NameLookupQueryBenchmark {
+
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"before", "after"})
+    public String query;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private String findByNameSql;
+    private String existsByFullNameSql;
+
+    @Setup(Level.Trial)
+    public void load() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        CustomerJdbcDao dao = new CustomerJdbcDao(jdbc, CustomerFixtures.validator());
+        for (int from = 0; from < size; from += LOAD_BATCH) {
+            dao.saveAll(CustomerFixtures.customers(from, Math.min(LOAD_BATCH, size - from)));
+        }
+        boolean before = query.equals("before");
+        findByNameSql = CustomerRowMapper.SELECT_CUSTOMER
+                + (before ? " WHERE LOWER(c.name) = LOWER(?)" : " WHERE c.name_lower = LOWER(?)");
+        existsByFullNameSql = before
+                ? "SELECT COUNT(*) > 0 FROM customer WHERE LOWER(name) = LOWER(?) AND LOWER(family) = LOWER(?)"
+                : "SELECT EXISTS (SELECT 1 FROM customer WHERE name_lower = LOWER(?) AND family_lower = LOWER(?))";
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        database.shutdown();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public List<Customer> findByName() {
+        return jdbc.query(findByNameSql, CustomerRowMapper.INSTANCE, CustomerFixtures.name(randomIndex()));
+    }
+
+    @Benchmark
+    public Boolean existsByFullName() {
+        int i = randomIndex();
+        return jdbc.queryForObject(existsByFullNameSql, Boolean.class,
+                CustomerFixtures.name(i), CustomerFixtures.family(i));
+    }
+}
@@ -0,0 +1,15 @@
+package dk.dev.customersystem.changes;
+
+import dk.dev.customersystem.enums.ChangeType;
+import dk.dev.customersystem.model.CustomerView;
+
+import java.time.Instant;
+
+/**
+ * One write of a customer, as published by {@link CustomerChangeFeed}. {@code customer} is the
+ * state after the write and is absent for deletions; {@code version} orders the writes of one
+ * customer, a deletion coming one after the version it removed.
+ */
+public record CustomerChange(long sequence, ChangeType type, long customerId, Long version, Instant at,
+                             CustomerView customer) {
+}
@@ -0,0 +1,132 @@
+package dk.dev.customersystem.changes;
+
+import dk.dev.customersystem.dto.CustomerChangePage;
+import dk.dev.customersystem.enums.ChangeType;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process feed of customer writes: a ring buffer of the latest {@link CustomerChange}s, each
+ * numbered with the next sequence number. A client keeps the sequence of the last change it saw
+ * as its cursor and reads on from there, at its own pace. Writers never wait for readers; a
+ * client that falls more than the capacity behind gets the oldest changes still kept, flagged
+ * as truncated, and must re-read all customers.
+ * <p>
+ * Sequences start at the start time in microseconds, so they keep growing across restarts and a
+ * cursor of an earlier process is reported as truncated instead of silently skipping changes.
+ * Changes are published after their write, so concurrent writes of one customer may appear in
+ * either order; {@link CustomerChange#version()} tells which is newer.
+ */
+public class CustomerChangeFeed {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final CustomerChange[] ring;
+    private final long base;
+    private long latest;
+
+    public CustomerChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new CustomerChange[capacity];
+        this.base = System.currentTimeMillis() * 1000;
+        this.latest = base;
+    }
+
+    public long created(Customer customer) {
+        return append(ChangeType.CREATED, idOf(customer), customer.getVersion(), CustomerView.of(customer));
+    }
+
+    public long updated(Customer customer) {
+        return append(ChangeType.UPDATED, idOf(customer), customer.getVersion(), CustomerView.of(customer));
+    }
+
+    /** {@code version} is the one the removed customer had; the deletion is published as the next. */
+    public long deleted(long customerId, long version) {
+        return append(ChangeType.DELETED, customerId, version + 1, null);
+    }
+
+    /** The cursor of a client that only wants the changes from now on. */
+    public long latestSequence() {
+        lock.lock();
+        try {
+            return latest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return at most {@code limit} changes published after {@code since} */
+    public CustomerChangePage read(long since, int limit) {
+        return await(since, limit, Duration.ZERO);
+    }
+
+    /**
+     * Like {@link #read}, but waits up to {@code timeout} while there is nothing after
+     * {@code since}. When interrupted, returns what there is and keeps the interrupt flag set.
+     */
+    public CustomerChangePage await(long since, int limit, Duration timeout) {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (since == latest && nanos > 0) {
+                try {
+                    nanos = appended.awaitNanos(nanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return page(since, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(ChangeType type, long customerId, Long version, CustomerView customer) {
+        Instant at = Instant.now();
+        lock.lock();
+        try {
+            long sequence = ++latest;
+            ring[index(sequence)] = new CustomerChange(sequence, type, customerId, version, at, customer);
+            appended.signalAll();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long idOf(Customer customer) {
+        if (customer.getId() == null) {
+            throw new IllegalArgumentException("Only stored customers can be published, this one has no id");
+        }
+        return customer.getId();
+    }
+
+    // Callers hold the lock.
+    private CustomerChangePage page(long since, int limit) {
+        if (since > latest) {
+            return new CustomerChangePage(List.of(), latest, true);
+        }
+        long oldest = Math.max(base + 1, latest - ring.length + 1);
+        long first = Math.max(since + 1, oldest);
+        int count = (int) Math.max(0, Math.min(limit, latest - first + 1));
+        List<CustomerChange> changes = new ArrayList<>(count);
+        for (long sequence = first; sequence < first + count; sequence++) {
+            changes.add(ring[index(sequence)]);
+        }
+        return new CustomerChangePage(changes, first + count - 1, first > since + 1);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+}
@@ -0,0 +1,117 @@
+package dk.dev.customersystem.changes;
+
+import dk.dev.customersystem.config.CustomerChangeProperties;
+import dk.dev.customersystem.dto.CustomerChangePage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Server-Sent Events subscriptions to the {@link CustomerChangeFeed}. Each subscriber gets a
+ * virtual thread that reads the feed from its own cursor and writes to its own connection, so a
+ * slow client only blocks its own thread; once it is a whole feed behind, it is sent a
+ * {@code truncated} event and carries on with the oldest change still kept. Every change is
+ * sent with its sequence as event id, so a reconnecting client resumes through Last-Event-ID.
+ */
+@Component
+public class CustomerChangeStreams {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final CustomerChangeFeed feed;
+    private final CustomerChangeProperties properties;
+    private final Semaphore subscribers;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("customer-changes-", 0).factory());
+
+    @Autowired
+    public CustomerChangeStreams(CustomerChangeFeed feed, CustomerChangeProperties properties) {
+        this.feed = feed;
+        this.properties = properties;
+        this.subscribers = new Semaphore(properties.getMaxSubscribers());
+    }
+
+    /**
+     * Streams the changes after {@code since}, or from now on when it is {@code null}.
+     *
+     * @throws RejectedExecutionException when too many streams are open
+     */
+    public SseEmitter subscribe(Long since) {
+        if (!subscribers.tryAcquire()) {
+            throw new RejectedExecutionException("Too many change streams are open, please retry later");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscription subscription = new Subscription(emitter, since != null ? since : feed.latestSequence());
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.close());
+        try {
+            executor.execute(subscription);
+        } catch (RejectedExecutionException e) {
+            subscribers.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private long cursor;
+        private volatile boolean closed;
+        private volatile Thread worker;
+
+        Subscription(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void run() {
+            worker = Thread.currentThread();
+            try {
+                while (!closed && !Thread.currentThread().isInterrupted()) {
+                    CustomerChangePage page = feed.await(cursor, BATCH_SIZE, properties.getHeartbeat());
+                    if (page.isTruncated()) {
+                        emitter.send(SseEmitter.event().name("truncated").data(page.getNextCursor()));
+                    }
+                    if (page.getItems().isEmpty() && !page.isTruncated()) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (CustomerChange change : page.getItems()) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.sequence()))
+                                .name("change")
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    cursor = page.getNextCursor();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter completed: the container cleans up the request.
+            } finally {
+                subscribers.release();
+            }
+        }
+
+        void close() {
+            closed = true;
+            Thread current = worker;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package dk.dev.customersystem.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CustomerAsyncProperties.class)
+public class CustomerAsyncConfig {
+}
@@ -0,0 +1,17 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.async")
+public class CustomerAsyncProperties {
+
+    /** Threads running DAO work for the async API; no more calls run at once. */
+    private int threads = 16;
+
+    /** Calls waiting for a thread; beyond this, calls are rejected with 503. */
+    private int queueCapacity = 64;
+}
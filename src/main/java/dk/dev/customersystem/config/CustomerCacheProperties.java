@@ -0,0 +1,19 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.cache")
+public class CustomerCacheProperties {
+
+    private boolean enabled = false;
+
+    private long maximumSize = 10_000;
+
+    private Duration expireAfterWrite;
+}
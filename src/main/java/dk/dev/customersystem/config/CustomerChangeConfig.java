@@ -0,0 +1,16 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CustomerChangeProperties.class)
+public class CustomerChangeConfig {
+
+    @Bean
+    public CustomerChangeFeed customerChangeFeed(CustomerChangeProperties properties) {
+        return new CustomerChangeFeed(properties.getCapacity());
+    }
+}
@@ -0,0 +1,28 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.changes")
+public class CustomerChangeProperties {
+
+    /** Changes kept in memory; a client further behind is told it missed changes. */
+    private int capacity = 65_536;
+
+    /** Longest a long-poll for changes waits. */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /** Open change streams; further subscriptions are rejected with 503. */
+    private int maxSubscribers = 1000;
+
+    /** Lifetime of a change stream, after which the client reconnects with its Last-Event-ID. */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    /** Idle time after which a stream sends a comment, so dead connections are noticed. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
@@ -0,0 +1,27 @@
+package dk.dev.customersystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class CustomerDaoConfig {
+
+    // Bound straight from the environment: a BeanPostProcessor is created before
+    // @ConfigurationProperties beans could be post-processed themselves.
+    @Bean
+    public static CustomerDaoPostProcessor customerDaoPostProcessor(Environment environment,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        CustomerCacheProperties cacheProperties = binder
+                .bind("customer.cache", CustomerCacheProperties.class)
+                .orElseGet(CustomerCacheProperties::new);
+        CustomerSearchProperties searchProperties = binder
+                .bind("customer.search", CustomerSearchProperties.class)
+                .orElseGet(CustomerSearchProperties::new);
+        return new CustomerDaoPostProcessor(cacheProperties, searchProperties, meterRegistry);
+    }
+}
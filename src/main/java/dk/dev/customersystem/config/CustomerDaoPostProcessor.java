@@ -0,0 +1,107 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.cache.CachingCustomerDao;
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.dao.impl.CustomerJdbcDao;
+import dk.dev.customersystem.dao.impl.CustomerJpaDao;
+import dk.dev.customersystem.dao.metrics.MeteredCustomerDao;
+import dk.dev.customersystem.dao.search.CustomerSearchIndex;
+import dk.dev.customersystem.dao.search.SearchIndexedCustomerDao;
+import dk.dev.customersystem.dao.version.ChangeCountingCustomerDao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps every {@link CustomerDao} bean with the decorators enabled by configuration.
+ * It runs after the transaction and exception translation proxies have been applied,
+ * so decorators sit in front of the fully proxied DAO. Metrics wrap the DAO itself and
+ * the cache wraps the metrics, so DAO timers measure the backing store only. The search
+ * index wraps the cache, so it loads its matches through it. Change counting is outermost
+ * and always on: it backs the ETag of the customer list.
+ * <p>
+ * Search indexes are loaded once the context is refreshed, so the schema is initialized by then.
+ * This is triggered from here rather than by the decorator itself: the container never sees the
+ * decorator as a bean, neither inside the change counter nor as the product of a repository
+ * factory bean.
+ */
+public class CustomerDaoPostProcessor implements BeanPostProcessor, ApplicationListener<ContextRefreshedEvent> {
+
+    private final CustomerCacheProperties cacheProperties;
+    private final CustomerSearchProperties searchProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<SearchIndexedCustomerDao> searchDaos = new ArrayList<>();
+
+    public CustomerDaoPostProcessor(CustomerCacheProperties cacheProperties, CustomerSearchProperties searchProperties,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.searchProperties = searchProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CustomerDao customerDao)) {
+            return bean;
+        }
+        String implementation = implementationOf(customerDao);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("customer.store.size", customerDao, CustomerDao::count)
+                    .description("Number of stored customers")
+                    .tag("implementation", implementation)
+                    .register(registry);
+            customerDao = new MeteredCustomerDao(customerDao, registry, implementation);
+        }
+        if (cacheProperties.isEnabled()) {
+            CachingCustomerDao cachingDao = new CachingCustomerDao(customerDao, cacheProperties.getMaximumSize(),
+                    cacheProperties.getExpireAfterWrite());
+            if (registry != null) {
+                CaffeineCacheMetrics.monitor(registry, cachingDao.getCache(), "customer", "implementation", implementation);
+                Gauge.builder("customer.cache.hit.ratio", cachingDao, dao -> dao.stats().hitRate())
+                        .description("Share of findById calls served from the cache")
+                        .tag("implementation", implementation)
+                        .register(registry);
+            }
+            customerDao = cachingDao;
+        }
+        if (searchProperties.isEnabled()) {
+            SearchIndexedCustomerDao searchDao = new SearchIndexedCustomerDao(customerDao, new CustomerSearchIndex());
+            if (registry != null) {
+                Gauge.builder("customer.search.index.size", searchDao, dao -> dao.getIndex().size())
+                        .description("Number of customers in the search index")
+                        .tag("implementation", implementation)
+                        .register(registry);
+            }
+            searchDaos.add(searchDao);
+            customerDao = searchDao;
+        }
+        return new ChangeCountingCustomerDao(customerDao);
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        searchDaos.forEach(SearchIndexedCustomerDao::load);
+    }
+
+    private static String implementationOf(CustomerDao customerDao) {
+        if (customerDao instanceof CustomerInMemoryDao) {
+            return "inmemory";
+        }
+        if (customerDao instanceof CustomerJdbcDao) {
+            return "jdbc";
+        }
+        if (customerDao instanceof CustomerJpaDao) {
+            return "jpa";
+        }
+        return "other";
+    }
+}
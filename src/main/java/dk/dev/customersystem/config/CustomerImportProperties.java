@@ -0,0 +1,23 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.import")
+public class CustomerImportProperties {
+
+    /** Lines parsed and validated together, and stored with one batched write. */
+    private int chunkSize = 1000;
+
+    /** Threads parsing and validating; 0 uses one per available processor. */
+    private int threads = 0;
+
+    /** Errors kept in the import report; further ones are only counted. */
+    private int maxReportedErrors = 1000;
+
+    /** Lines between two progress reports. */
+    private long progressInterval = 100_000;
+}
@@ -0,0 +1,21 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.dao.journal.CustomerJournal;
+import dk.dev.customersystem.dao.journal.WriteAheadCustomerJournal;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CustomerJournalProperties.class)
+public class CustomerJournalConfig {
+
+    @Bean
+    public CustomerJournal customerJournal(CustomerJournalProperties properties) {
+        if (!properties.isEnabled()) {
+            return CustomerJournal.NONE;
+        }
+        return new WriteAheadCustomerJournal(properties.getDirectory(), properties.getFsync(),
+                properties.getFsyncInterval(), properties.getSnapshotInterval());
+    }
+}
@@ -0,0 +1,26 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.dao.journal.FsyncPolicy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.in-memory.journal")
+public class CustomerJournalProperties {
+
+    private boolean enabled = false;
+
+    private Path directory = Path.of("data", "journal");
+
+    private FsyncPolicy fsync = FsyncPolicy.ALWAYS;
+
+    /** Used by {@link FsyncPolicy#INTERVAL}. */
+    private Duration fsyncInterval = Duration.ofMillis(100);
+
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
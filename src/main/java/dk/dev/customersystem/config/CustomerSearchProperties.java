@@ -0,0 +1,14 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.search")
+public class CustomerSearchProperties {
+
+    /** Keeps an in-process search index; otherwise searches scan every customer. */
+    private boolean enabled = false;
+}
@@ -0,0 +1,21 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.dao.memory.BinaryCustomerStore;
+import dk.dev.customersystem.dao.memory.CustomerStore;
+import dk.dev.customersystem.dao.memory.ObjectCustomerStore;
+import dk.dev.customersystem.dao.memory.StorageMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CustomerStoreConfig {
+
+    @Bean
+    public CustomerStore customerStore(@Value("${customer.in-memory.storage:objects}") StorageMode storage) {
+        return switch (storage) {
+            case OBJECTS -> new ObjectCustomerStore();
+            case BINARY -> new BinaryCustomerStore();
+        };
+    }
+}
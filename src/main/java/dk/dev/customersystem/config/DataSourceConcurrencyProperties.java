@@ -0,0 +1,20 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.datasource.concurrency-limit")
+public class DataSourceConcurrencyProperties {
+
+    private boolean enabled = false;
+
+    /** Defaults to the connection pool size when not set. */
+    private Integer maxConcurrency;
+
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,38 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.jdbc.SqlStatistics;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Hikari's own default, used when the pool size is not configured.
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static SqlStatistics sqlStatistics(Environment environment) {
+        SqlStatsProperties properties = sqlStatsProperties(environment);
+        return new SqlStatistics(properties.getSlowQueryThreshold(), properties.getNPlusOneThreshold(),
+                properties.getMaxStatements());
+    }
+
+    @Bean
+    public static DataSourcePostProcessor dataSourcePostProcessor(Environment environment, SqlStatistics sqlStatistics) {
+        Binder binder = Binder.get(environment);
+        DataSourceConcurrencyProperties concurrencyProperties = binder
+                .bind("customer.datasource.concurrency-limit", DataSourceConcurrencyProperties.class)
+                .orElseGet(DataSourceConcurrencyProperties::new);
+        int poolSize = binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class)
+                .orElse(DEFAULT_POOL_SIZE);
+        SqlStatistics statistics = sqlStatsProperties(environment).isEnabled() ? sqlStatistics : null;
+        return new DataSourcePostProcessor(concurrencyProperties, poolSize, statistics);
+    }
+
+    private static SqlStatsProperties sqlStatsProperties(Environment environment) {
+        return Binder.get(environment).bind("customer.sql.stats", SqlStatsProperties.class)
+                .orElseGet(SqlStatsProperties::new);
+    }
+}
@@ -0,0 +1,44 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.jdbc.ConcurrencyLimitedDataSource;
+import dk.dev.customersystem.jdbc.SqlStatistics;
+import dk.dev.customersystem.jdbc.SqlStatsDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the {@link DataSource} bean with the limits and statistics enabled by configuration, so
+ * every JDBC and JPA access path goes through the same ceiling and is measured the same way.
+ * Statistics sit inside the limit, so time spent waiting for a permit is not counted as query time.
+ */
+public class DataSourcePostProcessor implements BeanPostProcessor {
+
+    private final DataSourceConcurrencyProperties concurrencyProperties;
+    private final int poolSize;
+    private final SqlStatistics sqlStatistics;
+
+    /** @param sqlStatistics {@code null} when statistics are disabled */
+    public DataSourcePostProcessor(DataSourceConcurrencyProperties concurrencyProperties, int poolSize,
+                                   SqlStatistics sqlStatistics) {
+        this.concurrencyProperties = concurrencyProperties;
+        this.poolSize = poolSize;
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        if (sqlStatistics != null) {
+            dataSource = new SqlStatsDataSource(dataSource, sqlStatistics);
+        }
+        if (concurrencyProperties.isEnabled()) {
+            Integer maxConcurrency = concurrencyProperties.getMaxConcurrency();
+            dataSource = new ConcurrencyLimitedDataSource(dataSource,
+                    maxConcurrency != null ? maxConcurrency : poolSize, concurrencyProperties.getAcquireTimeout());
+        }
+        return dataSource;
+    }
+}
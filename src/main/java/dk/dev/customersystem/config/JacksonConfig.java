@@ -0,0 +1,15 @@
+package dk.dev.customersystem.config;
+
+import dk.dev.customersystem.json.CustomerJsonModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Registered with the auto-configured ObjectMapper, used by MVC and injected elsewhere.
+    @Bean
+    public CustomerJsonModule customerJsonModule() {
+        return new CustomerJsonModule();
+    }
+}
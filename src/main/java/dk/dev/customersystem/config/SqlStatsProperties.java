@@ -0,0 +1,23 @@
+package dk.dev.customersystem.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer.sql.stats")
+public class SqlStatsProperties {
+
+    private boolean enabled = true;
+
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    /** Executions of one statement within a request from which it is reported as a possible N+1. */
+    private int nPlusOneThreshold = 10;
+
+    /** Distinct statements tracked; further ones are pooled into a single entry. */
+    private int maxStatements = 500;
+}
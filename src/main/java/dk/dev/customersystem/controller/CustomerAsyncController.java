@@ -0,0 +1,67 @@
+package dk.dev.customersystem.controller;
+
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.CustomerPage;
+import dk.dev.customersystem.facade.CustomerAsyncFacade;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read endpoints of {@link CustomerController} served asynchronously: the request thread is
+ * released while the bounded customer executor does the DAO work, and a saturated executor
+ * answers 503 right away.
+ */
+@RestController
+@RequestMapping("/api/v1/async/customers")
+public class CustomerAsyncController {
+
+    private final CustomerAsyncFacade facade;
+
+    @Autowired
+    public CustomerAsyncController(CustomerAsyncFacade facade) {
+        this.facade = facade;
+    }
+
+    @Operation(summary = "Get all customers asynchronously",
+            description = "Retrieve customers ordered by id, one page at a time. Pass the nextCursor of a page as 'after' to get the following page")
+    @GetMapping
+    public CompletableFuture<CustomerPage> getAllCustomers(@RequestParam(defaultValue = "100")
+                                                           @Positive(message = "The limit must be positive.")
+                                                           @Max(value = 1000, message = "The limit must not exceed 1000.") int limit,
+                                                           @RequestParam(required = false) Long after) {
+        return facade.getCustomerPageAsync(after, limit);
+    }
+
+    @Operation(summary = "Get a customer by id asynchronously", description = "Retrieve a customer by id")
+    @GetMapping("/{id}")
+    public CompletableFuture<CustomerDto> getCustomerById(@PathVariable @Positive(message = "The Id must be positive.") Long id) {
+        return facade.getCustomerByIdAsync(id);
+    }
+
+    @Operation(summary = "Get customers by name asynchronously", description = "Retrieve a list of customers by their name")
+    @GetMapping("/name/{name}")
+    public CompletableFuture<List<CustomerDto>> getCustomersByName(@PathVariable String name) {
+        return facade.getCustomersByNameAsync(name);
+    }
+
+    @Operation(summary = "Search customers asynchronously", description = "Type-ahead search, see GET /api/v1/customers/search")
+    @GetMapping("/search")
+    public CompletableFuture<List<CustomerDto>> searchCustomers(@RequestParam @NotBlank(message = "The query must not be blank.") String q,
+                                                                @RequestParam(defaultValue = "10")
+                                                                @Positive(message = "The limit must be positive.")
+                                                                @Max(value = 100, message = "The limit must not exceed 100.") int limit,
+                                                                @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return facade.searchCustomersAsync(q, limit, fuzzy);
+    }
+}
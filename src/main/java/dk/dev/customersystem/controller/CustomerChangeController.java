@@ -0,0 +1,70 @@
+package dk.dev.customersystem.controller;
+
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import dk.dev.customersystem.changes.CustomerChangeStreams;
+import dk.dev.customersystem.config.CustomerChangeProperties;
+import dk.dev.customersystem.dto.CustomerChangePage;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Incremental sync: clients read all customers once, then follow the changes from a cursor
+ * taken before that read. Long-polls block their request thread, which is cheap with virtual
+ * threads.
+ */
+@RestController
+@RequestMapping("/api/v1/customers/changes")
+public class CustomerChangeController {
+
+    private final CustomerChangeFeed feed;
+    private final CustomerChangeStreams streams;
+    private final CustomerChangeProperties properties;
+
+    @Autowired
+    public CustomerChangeController(CustomerChangeFeed feed, CustomerChangeStreams streams,
+                                    CustomerChangeProperties properties) {
+        this.feed = feed;
+        this.streams = streams;
+        this.properties = properties;
+    }
+
+    @Operation(summary = "Get customer changes",
+            description = "Long-poll for the changes after the cursor 'since', waiting up to 'wait' seconds while there are none. "
+                    + "Without 'since' the answer is empty and its nextCursor starts from now. "
+                    + "When 'truncated' is set, changes were missed and all customers must be read again")
+    @GetMapping
+    public CustomerChangePage getChanges(@RequestParam(required = false) Long since,
+                                         @RequestParam(defaultValue = "100")
+                                         @Positive(message = "The limit must be positive.")
+                                         @Max(value = 1000, message = "The limit must not exceed 1000.") int limit,
+                                         @RequestParam(required = false)
+                                         @PositiveOrZero(message = "The wait must not be negative.") Integer wait) {
+        if (since == null) {
+            return feed.read(feed.latestSequence(), limit);
+        }
+        Duration maxWait = properties.getMaxWait();
+        Duration timeout = wait == null || Duration.ofSeconds(wait).compareTo(maxWait) > 0 ? maxWait : Duration.ofSeconds(wait);
+        return feed.await(since, limit, timeout);
+    }
+
+    @Operation(summary = "Stream customer changes",
+            description = "Server-Sent Events of the changes after 'since', or from now on. Each 'change' event has its sequence as id, "
+                    + "so a reconnecting client resumes through Last-Event-ID; a 'truncated' event means changes were missed")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return streams.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
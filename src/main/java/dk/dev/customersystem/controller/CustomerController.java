@@ -1,9 +1,22 @@
 package dk.dev.customersystem.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dk.dev.customersystem.dto.BatchItemResult;
 import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.CustomerLookupResult;
+import dk.dev.customersystem.dto.CustomerPage;
+import dk.dev.customersystem.dto.ImportReport;
 import dk.dev.customersystem.dto.LegalCustomerDto;
 import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.exception.CustomerVersionConflictException;
 import dk.dev.customersystem.facade.CustomerFacade;
+import dk.dev.customersystem.importer.CustomerImporter;
+import dk.dev.customersystem.importer.ImportFormat;
+import dk.dev.customersystem.importer.ImportListener;
+import dk.dev.customersystem.model.CustomerView;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +25,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,29 +43,99 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/customers")
 public class CustomerController {
 
     private final CustomerFacade facade;
+    private final ObjectMapper objectMapper;
+    private final CustomerImporter importer;
 
     @Autowired
-    public CustomerController(CustomerFacade facade) {
+    public CustomerController(CustomerFacade facade, ObjectMapper objectMapper, CustomerImporter importer) {
         this.facade = facade;
+        this.objectMapper = objectMapper;
+        this.importer = importer;
     }
 
-    @Operation(summary = "Get all customers", description = "Retrieve a list of all customers")
+    @Operation(summary = "Get all customers",
+            description = "Retrieve customers ordered by id, one page at a time. Pass the nextCursor of a page as 'after' to get the following page. "
+                    + "The ETag changes whenever any customer changes; with a matching If-None-Match the answer is 304 Not Modified")
     @GetMapping
-    public List<CustomerDto> getAllCustomers() {
-        return facade.getAllCustomers();
+    public CustomerPage getAllCustomers(@RequestParam(defaultValue = "100")
+                                        @Positive(message = "The limit must be positive.")
+                                        @Max(value = 1000, message = "The limit must not exceed 1000.") int limit,
+                                        @RequestParam(required = false) Long after,
+                                        WebRequest request) {
+        // Read before the page, so the ETag is never newer than the customers it is sent with.
+        Optional<String> version = facade.getCollectionVersion();
+        if (version.isPresent() && request.checkNotModified(version.get())) {
+            return null;
+        }
+        return facade.getCustomerPage(after, limit);
     }
 
-    @Operation(summary = "Get a customer by id", description = "Retrieve a customer by id")
+    @Operation(summary = "Search customers",
+            description = "Type-ahead search: every word of q must prefix a word of the name or family, or q the digits of the phone number. With fuzzy, near misses fill up the remaining results")
+    @GetMapping("/search")
+    public List<CustomerDto> searchCustomers(@RequestParam @NotBlank(message = "The query must not be blank.") String q,
+                                             @RequestParam(defaultValue = "10")
+                                             @Positive(message = "The limit must be positive.")
+                                             @Max(value = 100, message = "The limit must not exceed 100.") int limit,
+                                             @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return facade.searchCustomers(q, limit, fuzzy);
+    }
+
+    @Operation(summary = "Export all customers",
+            description = "Stream every customer as newline-delimited JSON, one customer per line")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        ObjectWriter writer = objectMapper.writerFor(CustomerView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                facade.forEachCustomer(customer -> writeLine(writer, generator, customer));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Import customers",
+            description = "Stream a CSV file with a header line, or newline-delimited JSON as written by the export, into the store. Lines that cannot be read, fail validation or duplicate a full name are skipped and reported by line number")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReport importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        InputStream body) throws IOException {
+        return importer.importCustomers(body, ImportFormat.fromContentType(contentType), ImportListener.NONE);
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, CustomerView customer) {
+        try {
+            writer.writeValue(generator, customer);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Operation(summary = "Get a customer by id",
+            description = "Retrieve a customer by id. The ETag is the version of the customer; with a matching If-None-Match the answer is 304 Not Modified")
     @GetMapping("/{id}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer found",
@@ -64,8 +154,12 @@ public class CustomerController {
                             schema = @Schema(implementation = ErrorResponse.class)
                     ))
     })
-    public ResponseEntity<?> getCustomerById(@PathVariable @Positive(message = "The Id must be positive.") Long id) {
+    public ResponseEntity<?> getCustomerById(@PathVariable @Positive(message = "The Id must be positive.") Long id,
+                                             WebRequest request) {
         CustomerDto customerDto = facade.getCustomerById(id);
+        if (customerDto.getVersion() != null && request.checkNotModified(customerDto.getVersion().toString())) {
+            return null;
+        }
         return ResponseEntity.status(HttpStatus.OK)
                 .body(customerDto);
 
@@ -131,9 +225,32 @@ public class CustomerController {
     }
 
 
-    @Operation(summary = "Update an existing customer", description = "Update the details of an existing customer")
+    @Operation(summary = "Add customers in bulk",
+            description = "Create up to 1000 customers with one batched write and report the outcome of every item")
+    @PostMapping("/batch")
+    public List<BatchItemResult> addCustomers(@RequestBody
+                                              @NotEmpty(message = "At least one customer is required.")
+                                              @Size(max = 1000, message = "At most 1000 customers can be added at once.")
+                                              List<@NotNull(message = "Batch items must not be null.") CustomerDto> customers) {
+        return facade.addCustomers(customers);
+    }
+
+
+    @Operation(summary = "Look up customers by id",
+            description = "Resolve up to 1000 ids with one query. Customers come in the order of the requested ids; ids not found are listed in missingIds")
+    @PostMapping("/lookup")
+    public CustomerLookupResult lookupCustomers(@RequestBody
+                                                @NotEmpty(message = "At least one id is required.")
+                                                @Size(max = 1000, message = "At most 1000 ids can be looked up at once.") List<Long> ids) {
+        return facade.lookupCustomers(ids);
+    }
+
+
+    @Operation(summary = "Update an existing customer",
+            description = "Update the details of an existing customer. With If-Match set to the ETag of the customer, the update only applies if nobody changed the customer since; otherwise the answer is 412 Precondition Failed")
     @PutMapping("/{id}")
-    public CustomerDto updateCustomer(@PathVariable Long id,
+    public ResponseEntity<CustomerDto> updateCustomer(@PathVariable Long id,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                       @io.swagger.v3.oas.annotations.parameters.RequestBody(
                                               description = "Updated customer object",
                                               required = true,
@@ -170,7 +287,33 @@ public class CustomerController {
                                               )
                                       )
                                       @RequestBody CustomerDto customer) {
-        return facade.updateCustomer(id, customer);
+        CustomerDto updated = facade.updateCustomer(id, customer, expectedVersion(ifMatch));
+        if (updated == null && ifMatch != null) {
+            // No current representation matches any If-Match, "*" included (RFC 9110 13.1.1).
+            throw new CustomerVersionConflictException("If-Match " + ifMatch + " does not match the customer");
+        }
+        if (updated == null || updated.getVersion() == null) {
+            return ResponseEntity.ok(updated);
+        }
+        return ResponseEntity.ok()
+                .eTag(updated.getVersion().toString())
+                .body(updated);
+    }
+
+    // If-Match needs a strong ETag of the customer; "*" only asks for the customer to exist.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not a version of ours: falls through to the conflict.
+            }
+        }
+        throw new CustomerVersionConflictException("If-Match " + ifMatch + " does not match the customer");
     }
 
     @Operation(summary = "Get customers by name", description = "Retrieve a list of customers by their name")
@@ -0,0 +1,59 @@
+package dk.dev.customersystem.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.dao.cache.CachingCustomerDao;
+import dk.dev.customersystem.dto.CacheStatsDto;
+import dk.dev.customersystem.dto.SqlStatsDto;
+import dk.dev.customersystem.jdbc.SqlStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal")
+public class InternalController {
+
+    private final CustomerDao customerDao;
+    private final SqlStatistics sqlStatistics;
+
+    @Autowired
+    public InternalController(CustomerDao customerDao, SqlStatistics sqlStatistics) {
+        this.customerDao = customerDao;
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Operation(summary = "Customer cache statistics", description = "Hit, miss and eviction counters of the customer cache")
+    @GetMapping("/cache-stats")
+    public CacheStatsDto getCacheStats() {
+        CachingCustomerDao cachingDao = ForwardingCustomerDao.find(customerDao, CachingCustomerDao.class).orElse(null);
+        if (cachingDao == null) {
+            return new CacheStatsDto(false, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = cachingDao.stats();
+        return new CacheStatsDto(true, cachingDao.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    @Operation(summary = "SQL statement statistics",
+            description = "Top statements by the given order, plus suspected N+1 query patterns per endpoint")
+    @GetMapping("/sql-stats")
+    public SqlStatsDto getSqlStats(@RequestParam(defaultValue = "20") int limit,
+                                   @RequestParam(defaultValue = "TOTAL_TIME") SqlStatistics.Order orderBy) {
+        return new SqlStatsDto(sqlStatistics.top(orderBy, limit), sqlStatistics.nPlusOneSuspects(),
+                sqlStatistics.droppedSlowQueryLogs());
+    }
+
+    @Operation(summary = "Reset SQL statement statistics")
+    @DeleteMapping("/sql-stats")
+    public ResponseEntity<Void> resetSqlStats() {
+        sqlStatistics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
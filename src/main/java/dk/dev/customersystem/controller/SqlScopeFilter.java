@@ -0,0 +1,40 @@
+package dk.dev.customersystem.controller;
+
+import dk.dev.customersystem.jdbc.SqlStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Makes each request an N+1 detection scope of {@link SqlStatistics}, named after its method and
+ * route pattern so that requests for different ids are grouped together.
+ */
+@Component
+public class SqlScopeFilter extends OncePerRequestFilter {
+
+    private final SqlStatistics sqlStatistics;
+
+    @Autowired
+    public SqlScopeFilter(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        sqlStatistics.openScope();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlStatistics.closeScope(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        }
+    }
+}
@@ -1,16 +1,60 @@
 package dk.dev.customersystem.dao;
 
+import dk.dev.customersystem.dao.search.SearchTerms;
 import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CustomerDao {
     Customer save(Customer customer);
+    Optional<Customer> insertIfAbsent(Customer customer);
+    List<Customer> saveAll(Collection<Customer> customers);
+    int update(Customer customer);
     void deleteById(Long id);
+    /** @return the version the removed customer had, empty if there was none with {@code id} */
+    Optional<Long> removeById(Long id);
     Optional<Customer> findById(Long id);
+    /** The customers among {@code ids} that exist, in no particular order. */
+    List<Customer> findAllById(Collection<Long> ids);
     List<Customer> findAll();
+    List<Customer> findPage(Long afterId, int limit);
+    void forEachCustomer(Consumer<? super Customer> action);
     List<Customer> findByNameIgnoreCase(String name);
     boolean existsById(Long id);
     boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(String name, String family);
+    long count();
+
+    // Projections for reads that only render customers; these defaults copy the entities.
+    default List<CustomerView> findViewPage(Long afterId, int limit) {
+        return findPage(afterId, limit).stream()
+                .map(CustomerView::of)
+                .toList();
+    }
+
+    default void forEachView(Consumer<? super CustomerView> action) {
+        forEachCustomer(customer -> action.accept(CustomerView.of(customer)));
+    }
+
+    /**
+     * Customers whose name, family or phone number match every word of {@code query} by prefix,
+     * or within a small edit distance when {@code fuzzy} is set. This default scans every customer.
+     */
+    default List<Customer> search(String query, int limit, boolean fuzzy) {
+        List<String> tokens = SearchTerms.queryTokens(query);
+        List<Customer> customers = new ArrayList<>();
+        if (tokens.isEmpty()) {
+            return customers;
+        }
+        forEachCustomer(customer -> {
+            if (customers.size() < limit && SearchTerms.matches(tokens, customer, fuzzy)) {
+                customers.add(customer);
+            }
+        });
+        return customers;
+    }
 }
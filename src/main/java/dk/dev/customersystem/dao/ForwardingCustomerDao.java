@@ -0,0 +1,127 @@
+package dk.dev.customersystem.dao;
+
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Base class for decorators of a {@link CustomerDao}: every call goes to the delegate
+ * unless a subclass overrides it.
+ */
+public abstract class ForwardingCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+
+    protected ForwardingCustomerDao(CustomerDao delegate) {
+        this.delegate = delegate;
+    }
+
+    public CustomerDao getDelegate() {
+        return delegate;
+    }
+
+    /** Finds the decorator or DAO of the given type in the chain starting at {@code customerDao}. */
+    public static <T extends CustomerDao> Optional<T> find(CustomerDao customerDao, Class<T> type) {
+        for (CustomerDao current = customerDao; current != null; ) {
+            if (type.isInstance(current)) {
+                return Optional.of(type.cast(current));
+            }
+            current = current instanceof ForwardingCustomerDao forwarding ? forwarding.getDelegate() : null;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return delegate.save(customer);
+    }
+
+    @Override
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        return delegate.insertIfAbsent(customer);
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        return delegate.saveAll(customers);
+    }
+
+    @Override
+    public int update(Customer customer) {
+        return delegate.update(customer);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        return delegate.removeById(id);
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        delegate.forEachCustomer(action);
+    }
+
+    @Override
+    public List<CustomerView> findViewPage(Long afterId, int limit) {
+        return delegate.findViewPage(afterId, limit);
+    }
+
+    @Override
+    public void forEachView(Consumer<? super CustomerView> action) {
+        delegate.forEachView(action);
+    }
+
+    @Override
+    public List<Customer> findByNameIgnoreCase(String name) {
+        return delegate.findByNameIgnoreCase(name);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(String name, String family) {
+        return delegate.existsByNameIgnoreCaseAndFamilyIgnoreCase(name, family);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit, boolean fuzzy) {
+        return delegate.search(query, limit, fuzzy);
+    }
+}
@@ -0,0 +1,138 @@
+package dk.dev.customersystem.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.model.Customer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of {@link #findById(Long)} and {@link #findAllById} in front of another {@link CustomerDao}.
+ * Entries are bounded by size (W-TinyLFU eviction) and optionally by age, and are
+ * invalidated by every write that goes through this decorator. Missing ids are not cached.
+ */
+public class CachingCustomerDao extends ForwardingCustomerDao {
+
+    private final Cache<Long, Customer> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachingCustomerDao(CustomerDao delegate, long maximumSize, Duration expireAfterWrite) {
+        super(delegate);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        this.cache = builder.build();
+    }
+
+    public Cache<Long, Customer> getCache() {
+        return cache;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        if (id == null) {
+            return super.findById(id);
+        }
+        return Optional.ofNullable(cache.get(id, key -> super.findById(key).orElse(null)));
+    }
+
+    // Ids missing from the cache are loaded with one call to the delegate. Unlike the per-key
+    // load of findById, that call is not atomic with invalidate: when any write invalidated an
+    // entry while it ran, what it loaded may predate the write and is taken out of the cache again.
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        missing.remove(null);
+        Map<Long, Customer> found = new HashMap<>(cache.getAllPresent(missing));
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return new ArrayList<>(found.values());
+        }
+        long seen = invalidations.get();
+        List<Customer> loaded = super.findAllById(List.copyOf(missing));
+        for (Customer customer : loaded) {
+            found.put(customer.getId(), customer);
+            cache.asMap().putIfAbsent(customer.getId(), customer);
+        }
+        if (invalidations.get() != seen) {
+            loaded.forEach(customer -> cache.asMap().remove(customer.getId(), customer));
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        try {
+            return super.save(customer);
+        } finally {
+            invalidate(customer.getId());
+        }
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        try {
+            return super.saveAll(customers);
+        } finally {
+            customers.forEach(customer -> invalidate(customer.getId()));
+        }
+    }
+
+    @Override
+    public int update(Customer customer) {
+        try {
+            return super.update(customer);
+        } finally {
+            invalidate(customer.getId());
+        }
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        try {
+            return super.removeById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        try {
+            super.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    private void invalidate(Long id) {
+        if (id != null) {
+            // Counted before the entry goes, so a bulk load either sees the count or is invalidated after.
+            invalidations.incrementAndGet();
+            cache.invalidate(id);
+        }
+    }
+}
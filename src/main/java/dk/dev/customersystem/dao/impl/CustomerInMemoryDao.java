@@ -1,6 +1,11 @@
 package dk.dev.customersystem.dao.impl;
 
 import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.journal.CustomerJournal;
+import dk.dev.customersystem.dao.memory.CustomerStore;
+import dk.dev.customersystem.dao.memory.ObjectCustomerStore;
+import dk.dev.customersystem.exception.CustomerVersionConflictException;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
 import dk.dev.customersystem.model.Customer;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -9,66 +14,234 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Repository
 
 public class CustomerInMemoryDao implements CustomerDao {
 
     private final AtomicLong currentId = new AtomicLong(0);
-    private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> sortedIds = new ConcurrentSkipListSet<>();
+    private final Map<String, Set<Long>> nameIndex = new ConcurrentHashMap<>();
+    private final Map<FullName, Long> fullNameIndex = new ConcurrentHashMap<>();
+    private final CustomerStore customers;
     private final Validator validator;
-    @Autowired
+    private final CustomerJournal journal;
+
     public CustomerInMemoryDao(Validator validator) {
+        this(validator, new ObjectCustomerStore(), CustomerJournal.NONE);
+    }
+
+    @Autowired
+    public CustomerInMemoryDao(Validator validator, CustomerStore customers, CustomerJournal journal) {
         this.validator = validator;
+        this.customers = customers;
+        this.journal = journal;
+        currentId.set(journal.open(this::restore, new CustomerJournal.Source() {
+            @Override
+            public long lastId() {
+                return currentId.get();
+            }
+
+            @Override
+            public void forEachCustomer(Consumer<? super Customer> action) {
+                customers.forEach(action);
+            }
+        }));
     }
 
     @Override
     public Customer save(Customer customer) {
-        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
-        if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
-        }
+        validate(customer);
         if(!existsById(customer.getId())) {
             Long id = currentId.incrementAndGet();
             customer.setId(id);
         }
-        customers.put(customer.getId(), customer);
+        journal.awaitDurable(store(customer));
         return customer;
     }
 
+    @Override
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        validate(customer);
+        Long id = currentId.incrementAndGet();
+        FullName fullName = fullNameOf(customer);
+        if (fullNameIndex.putIfAbsent(fullName, id) != null) {
+            return Optional.empty();
+        }
+        customer.setId(id);
+        long position;
+        try {
+            position = store(customer);
+        } catch (RuntimeException e) {
+            // Nothing was stored: give the full name back, or it stays taken until restart.
+            fullNameIndex.remove(fullName, id);
+            throw e;
+        }
+        journal.awaitDurable(position);
+        return Optional.of(customer);
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customersToSave) {
+        customersToSave.forEach(this::validate);
+        List<Customer> newCustomers = customersToSave.stream()
+                .filter(customer -> !existsById(customer.getId()))
+                .toList();
+        long id = currentId.getAndAdd(newCustomers.size());
+        for (Customer customer : newCustomers) {
+            customer.setId(++id);
+        }
+        long position = 0;
+        try {
+            for (Customer customer : customersToSave) {
+                position = Math.max(position, store(customer));
+            }
+        } catch (RuntimeException e) {
+            // The customers stored before the failure stay, and callers settle the batch by
+            // checking which exist: they must be as durable as any other write first.
+            try {
+                journal.awaitDurable(position);
+            } catch (RuntimeException durability) {
+                e.addSuppressed(durability);
+            }
+            throw e;
+        }
+        journal.awaitDurable(position);
+        return List.copyOf(customersToSave);
+    }
+
+    @Override
+    public int update(Customer customer) {
+        validate(customer);
+        if (customer.getId() == null) {
+            return 0;
+        }
+        long[] position = {-1};
+        journal.beginWrite();
+        try {
+            customers.computeIfPresent(customer.getId(), previous -> {
+                position[0] = write(previous, customer);
+                return customer;
+            });
+        } finally {
+            journal.endWrite();
+        }
+        if (position[0] < 0) {
+            return 0;
+        }
+        journal.awaitDurable(position[0]);
+        return 1;
+    }
+
     @Override
     public void deleteById(Long id) {
-        customers.remove(id);
+        removeById(id);
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        long[] position = {-1};
+        Long[] version = {null};
+        journal.beginWrite();
+        try {
+            customers.computeIfPresent(id, previous -> {
+                position[0] = journal.appendDelete(id);
+                version[0] = previous.getVersion() != null ? previous.getVersion() : 0;
+                unindex(previous);
+                sortedIds.remove(id);
+                return null;
+            });
+        } finally {
+            journal.endWrite();
+        }
+        if (position[0] < 0) {
+            return Optional.empty();
+        }
+        journal.awaitDurable(position[0]);
+        return Optional.of(version[0]);
     }
 
     @Override
     public Optional<Customer> findById(Long id) {
-        if (!existsById(id)) {
+        if (id == null) {
             return Optional.empty();
-        }else{
-            return Optional.of(customers.get(id));
         }
+        return Optional.ofNullable(customers.get(id));
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        List<Customer> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = id != null ? customers.get(id) : null;
+            if (customer != null) {
+                found.add(customer);
+            }
+        }
+        return found;
     }
 
     @Override
     public List<Customer> findAll() {
-        return customers.values()
-                .stream().toList();
+        List<Customer> all = new ArrayList<>(customers.size());
+        customers.forEach(all::add);
+        return all;
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        List<Customer> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Long id : afterId == null ? sortedIds : sortedIds.tailSet(afterId, false)) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                page.add(customer);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        for (Long id : sortedIds) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                action.accept(customer);
+            }
+        }
     }
 
     @Override
     public List<Customer> findByNameIgnoreCase(String name) {
-        return customers.values()
-                .stream()
-                .filter(customer -> customer.getName() != null &&
-                        customer.getName().equalsIgnoreCase(name))
-                .toList();
+        if (name == null) {
+            return List.of();
+        }
+        Set<Long> ids = nameIndex.getOrDefault(fold(name), Set.of());
+        List<Customer> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                result.add(customer);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -76,14 +249,140 @@ public class CustomerInMemoryDao implements CustomerDao {
         if (id == null) {
             return false;
         }else
-            return customers.containsKey(id);
+            return customers.contains(id);
+    }
+
+    @Override
+    public long count() {
+        return customers.size();
     }
 
     @Override
     public boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(String name, String family) {
-        return customers.values()
-                .stream()
-                .anyMatch(customer -> customer.getName().equalsIgnoreCase(name)
-                && customer.getFamily().equalsIgnoreCase(family));
+        if (name == null || family == null) {
+            return false;
+        }
+        return fullNameIndex.containsKey(new FullName(fold(name), fold(family)));
+    }
+
+    // Indexes, including sortedIds, are updated and the journal appended inside compute, so that
+    // concurrent writes to the same id apply and are logged in one order. Returns the journal
+    // position to wait for.
+    private long store(Customer customer) {
+        long[] position = new long[1];
+        journal.beginWrite();
+        try {
+            customers.compute(customer.getId(), previous -> {
+                position[0] = write(previous, customer);
+                return customer;
+            });
+        } finally {
+            journal.endWrite();
+        }
+        return position[0];
+    }
+
+    // Loads a recovered customer without journaling it again.
+    private void restore(Customer customer) {
+        customers.compute(customer.getId(), previous -> {
+            claimFullName(customer);
+            Customer stored = reindex(previous, customer);
+            sortedIds.add(stored.getId());
+            return stored;
+        });
+    }
+
+    // Must run inside a compute on the id of the customer. A write carrying a version must match
+    // the stored one; the stored customer gets the next version. The journal is appended before
+    // the indexes change; a failed append only leaves the claim of the new full name, which is
+    // given back. Returns the journal position of the write.
+    private long write(Customer previous, Customer customer) {
+        Long expected = customer.getVersion();
+        long current = previous != null && previous.getVersion() != null ? previous.getVersion() : 0;
+        if (previous != null && expected != null && expected != current) {
+            throw new CustomerVersionConflictException("Customer with id " + customer.getId()
+                    + " is no longer at version " + expected);
+        }
+        boolean claimed = claimFullName(customer);
+        customer.setVersion(previous != null ? current + 1 : 0);
+        long position;
+        try {
+            position = journal.appendPut(customer);
+        } catch (RuntimeException e) {
+            customer.setVersion(expected);
+            if (claimed) {
+                fullNameIndex.remove(fullNameOf(customer), customer.getId());
+            }
+            throw e;
+        }
+        reindex(previous, customer);
+        sortedIds.add(customer.getId());
+        return position;
+    }
+
+    // The full name index is unique: claiming a full name owned by another id rejects the write.
+    // Returns whether the full name was free.
+    private boolean claimFullName(Customer customer) {
+        Long owner = fullNameIndex.putIfAbsent(fullNameOf(customer), customer.getId());
+        if (owner != null && !owner.equals(customer.getId())) {
+            throw new DuplicatedCustomerException("Customer with full name " + customer.getName() + " "
+                    + customer.getFamily() + " already exists");
+        }
+        return owner == null;
+    }
+
+    // Must run inside a compute on the id of the customer, once it holds its full name.
+    private Customer reindex(Customer previous, Customer customer) {
+        Long id = customer.getId();
+        FullName fullName = fullNameOf(customer);
+        if (previous != null) {
+            FullName previousFullName = fullNameOf(previous);
+            if (!previousFullName.equals(fullName)) {
+                fullNameIndex.remove(previousFullName, id);
+            }
+            removeFromIndex(nameIndex, previousFullName.name(), id);
+        }
+        addToIndex(nameIndex, fullName.name(), id);
+        return customer;
+    }
+
+    private void unindex(Customer customer) {
+        Long id = customer.getId();
+        FullName fullName = fullNameOf(customer);
+        removeFromIndex(nameIndex, fullName.name(), id);
+        fullNameIndex.remove(fullName, id);
+    }
+
+    private static FullName fullNameOf(Customer customer) {
+        return new FullName(fold(customer.getName()), fold(customer.getFamily()));
+    }
+
+    private static <K> void addToIndex(Map<K, Set<Long>> index, K key, Long id) {
+        index.compute(key, (k, ids) -> {
+            Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Long>> index, K key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private void validate(Customer customer) {
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private record FullName(String name, String family) {
     }
 }
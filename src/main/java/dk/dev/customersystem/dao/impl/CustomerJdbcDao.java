@@ -1,8 +1,10 @@
 package dk.dev.customersystem.dao.impl;
 
 import dk.dev.customersystem.dao.CustomerDao;
-import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.exception.CustomerVersionConflictException;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
 import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
 import dk.dev.customersystem.model.LegalCustomer;
 import dk.dev.customersystem.model.RealCustomer;
 import jakarta.validation.ConstraintViolation;
@@ -11,16 +13,23 @@ import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Repository
 @Primary
@@ -28,8 +37,22 @@ import java.util.Set;
 public class CustomerJdbcDao implements CustomerDao {
 
 
+    private static final String INSERT_CUSTOMER_SQL =
+            "INSERT INTO customer (id, name, family, phone_number, type) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_REAL_CUSTOMER_SQL = "INSERT INTO real_customer (id, nationality) VALUES (?, ?)";
+    private static final String INSERT_LEGAL_CUSTOMER_SQL = "INSERT INTO legal_customer (id, industry) VALUES (?, ?)";
+
+    // Must match INCREMENT BY of customer_id_seq in schema.sql: every sequence value reserves a block of ids.
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int BATCH_SIZE = 500;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int IN_LIST_SIZE = 1000;
+
     private final JdbcTemplate jdbc;
     private final Validator validator;
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long idBlockEnd;
 
     @Autowired
     public CustomerJdbcDao(JdbcTemplate jdbc, Validator validator) {
@@ -38,168 +61,257 @@ public class CustomerJdbcDao implements CustomerDao {
     }
 
     private Customer insert(Customer customer) {
-        String customerSql = "INSERT INTO customer (name, family, phone_number, type) VALUES (?, ?, ?, ?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbc.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(customerSql, new String[]{"id"});
-            ps.setString(1, customer.getName());
-            ps.setString(2, customer.getFamily());
-            ps.setString(3, customer.getPhoneNumber());
-            ps.setString(4, customer.getType().name());
-            return ps;
-        }, keyHolder);
-
-        Long id = keyHolder.getKey().longValue();
+        long id = allocateIds(1)[0];
+        jdbc.update(INSERT_CUSTOMER_SQL, id, customer.getName(), customer.getFamily(),
+                customer.getPhoneNumber(), customer.getType().name());
         customer.setId(id);
+        customer.setVersion(0L);
 
         if (customer instanceof RealCustomer realCustomer) {
-            String realCustomerSql = "INSERT INTO real_customer (id, nationality) VALUES (?, ?)";
-            jdbc.update(realCustomerSql, id, realCustomer.getNationality());
+            jdbc.update(INSERT_REAL_CUSTOMER_SQL, id, realCustomer.getNationality());
         } else if (customer instanceof LegalCustomer legalCustomer) {
-            String legalCustomerSql = "INSERT INTO legal_customer (id, industry) VALUES (?, ?)";
-            jdbc.update(legalCustomerSql, id, legalCustomer.getIndustry());
+            jdbc.update(INSERT_LEGAL_CUSTOMER_SQL, id, legalCustomer.getIndustry());
         }
 
         return customer;
     }
 
-    private Customer update(Customer customer) {
-        String customerSql = "UPDATE customer SET name = ?, phone_number = ?, type = ? WHERE id = ?";
-        jdbc.update(customerSql, customer.getName(), customer.getFamily(),
-                customer.getPhoneNumber(), customer.getType().name(), customer.getId());
+    private void insertAll(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        long[] ids = allocateIds(customers.size());
+        List<RealCustomer> realCustomers = new ArrayList<>();
+        List<LegalCustomer> legalCustomers = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            Customer customer = customers.get(i);
+            customer.setId(ids[i]);
+            customer.setVersion(0L);
+            if (customer instanceof RealCustomer realCustomer) {
+                realCustomers.add(realCustomer);
+            } else if (customer instanceof LegalCustomer legalCustomer) {
+                legalCustomers.add(legalCustomer);
+            }
+        }
+
+        jdbc.batchUpdate(INSERT_CUSTOMER_SQL, customers, BATCH_SIZE, (ps, customer) -> {
+            ps.setLong(1, customer.getId());
+            ps.setString(2, customer.getName());
+            ps.setString(3, customer.getFamily());
+            ps.setString(4, customer.getPhoneNumber());
+            ps.setString(5, customer.getType().name());
+        });
+        jdbc.batchUpdate(INSERT_REAL_CUSTOMER_SQL, realCustomers, BATCH_SIZE, (ps, customer) -> {
+            ps.setLong(1, customer.getId());
+            ps.setString(2, customer.getNationality());
+        });
+        jdbc.batchUpdate(INSERT_LEGAL_CUSTOMER_SQL, legalCustomers, BATCH_SIZE, (ps, customer) -> {
+            ps.setLong(1, customer.getId());
+            ps.setString(2, customer.getIndustry());
+        });
+    }
+
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int allocated = 0;
+        idLock.lock();
+        try {
+            while (allocated < count && nextId < idBlockEnd) {
+                ids[allocated++] = nextId++;
+            }
+            if (allocated < count) {
+                int blocks = (count - allocated + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+                List<Long> blockStarts = jdbc.queryForList(
+                        "SELECT NEXT VALUE FOR customer_id_seq FROM SYSTEM_RANGE(1, ?)", Long.class, blocks);
+                for (Long blockStart : blockStarts) {
+                    nextId = blockStart;
+                    idBlockEnd = blockStart + ID_BLOCK_SIZE;
+                    while (allocated < count && nextId < idBlockEnd) {
+                        ids[allocated++] = nextId++;
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // Returns the number of customer rows updated. A subtype row that does not match means the
+    // customer changed its type, so the row is moved to the subtype table of the new type.
+    // A customer carrying a version only updates the row still at that version.
+    private int updateRow(Customer customer) {
+        Long id = customer.getId();
+        Long expectedVersion = customer.getVersion();
+        // FINAL TABLE hands back the new version from the UPDATE itself.
+        String customerSql = "SELECT version FROM FINAL TABLE (UPDATE customer SET name = ?, family = ?, phone_number = ?, type = ?, version = version + 1 WHERE id = ?";
+        List<Long> versions = expectedVersion == null
+                ? jdbc.queryForList(customerSql + ")", Long.class, customer.getName(), customer.getFamily(),
+                        customer.getPhoneNumber(), customer.getType().name(), id)
+                : jdbc.queryForList(customerSql + " AND version = ?)", Long.class, customer.getName(), customer.getFamily(),
+                        customer.getPhoneNumber(), customer.getType().name(), id, expectedVersion);
+        if (versions.isEmpty()) {
+            if (expectedVersion != null && existsById(id)) {
+                throw new CustomerVersionConflictException("Customer with id " + id + " is no longer at version " + expectedVersion);
+            }
+            return 0;
+        }
+        customer.setVersion(versions.get(0));
 
         if (customer instanceof RealCustomer realCustomer) {
             String realCustomerSql = "UPDATE real_customer SET nationality = ? WHERE id = ?";
-            jdbc.update(realCustomerSql, realCustomer.getNationality(), customer.getId());
+            if (jdbc.update(realCustomerSql, realCustomer.getNationality(), id) == 0) {
+                jdbc.update("DELETE FROM legal_customer WHERE id = ?", id);
+                jdbc.update(INSERT_REAL_CUSTOMER_SQL, id, realCustomer.getNationality());
+            }
         } else if (customer instanceof LegalCustomer legalCustomer) {
             String legalCustomerSql = "UPDATE legal_customer SET industry = ? WHERE id = ?";
-            jdbc.update(legalCustomerSql, legalCustomer.getIndustry(), customer.getId());
+            if (jdbc.update(legalCustomerSql, legalCustomer.getIndustry(), id) == 0) {
+                jdbc.update("DELETE FROM real_customer WHERE id = ?", id);
+                jdbc.update(INSERT_LEGAL_CUSTOMER_SQL, id, legalCustomer.getIndustry());
+            }
         }
 
-        return customer;
+        return versions.size();
     }
 
     @Override
+    @Transactional
     public Customer save(Customer customer) {
-        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
-        if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
-        }
-        if (existsById(customer.getId())) {
-            return update(customer);
-        } else {
+        validate(customer);
+        try {
+            if (customer.getId() != null && updateRow(customer) > 0) {
+                return customer;
+            }
             return insert(customer);
+        } catch (DuplicateKeyException e) {
+            throw duplicated(customer, e);
         }
     }
 
     @Override
-    public void deleteById(Long id) {
-        String customerSql = "DELETE FROM customer WHERE id = ?";
-        jdbc.update(customerSql, id);
+    @Transactional
+    public int update(Customer customer) {
+        validate(customer);
+        try {
+            return customer.getId() != null ? updateRow(customer) : 0;
+        } catch (DuplicateKeyException e) {
+            throw duplicated(customer, e);
+        }
     }
 
     @Override
-    public Optional<Customer> findById(Long id) {
-        if(!existsById(id)) {
+    @Transactional
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        validate(customer);
+        customer.setId(null);
+        try {
+            return Optional.of(insert(customer));
+        } catch (DuplicateKeyException e) {
+            customer.setId(null);
             return Optional.empty();
         }
-        String customerSql = "SELECT * FROM customer WHERE id = ?";
-        Map<String, Object> customerRow = jdbc.queryForMap(customerSql, id);
-
-        CustomerType type = CustomerType.valueOf((String) customerRow.get("type"));
-        Customer customer;
-
-        if (type == CustomerType.REAL) {
-            String realCustomerSql = "SELECT * FROM real_customer WHERE id = ?";
-            Map<String, Object> realCustomerRow = jdbc.queryForMap(realCustomerSql, id);
-            customer = RealCustomer.builder()
-                    .id(id)
-                    .name((String) customerRow.get("name"))
-                    .family((String) customerRow.get("family"))
-                    .phoneNumber((String) customerRow.get("phone_number"))
-                    .type(type)
-                    .nationality((String) realCustomerRow.get("nationality"))
-                    .build();
-        } else {
-            String legalCustomerSql = "SELECT * FROM legal_customer WHERE id = ?";
-            Map<String, Object> legalCustomerRow = jdbc.queryForMap(legalCustomerSql, id);
-            customer = LegalCustomer.builder()
-                    .id(id)
-                    .name((String) customerRow.get("name"))
-                    .family((String) customerRow.get("family"))
-                    .phoneNumber((String) customerRow.get("phone_number"))
-                    .type(type)
-                    .industry((String) legalCustomerRow.get("industry"))
-                    .build();
+    }
+
+    @Override
+    @Transactional
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        List<Customer> newCustomers = new ArrayList<>(customers.size());
+        try {
+            for (Customer customer : customers) {
+                validate(customer);
+                if (customer.getId() == null || updateRow(customer) == 0) {
+                    newCustomers.add(customer);
+                }
+            }
+            insertAll(newCustomers);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicatedCustomerException("A customer of the batch has the full name of an existing customer", e);
         }
+        return List.copyOf(customers);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        removeById(id);
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        // OLD TABLE hands back the version of the deleted row from the DELETE itself.
+        String customerSql = "SELECT version FROM OLD TABLE (DELETE FROM customer WHERE id = ?)";
+        return jdbc.queryForList(customerSql, Long.class, id).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        String customerSql = CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.id = ?";
+        return jdbc.query(customerSql, CustomerRowMapper.INSTANCE, id)
+                .stream()
+                .findFirst();
+    }
 
-        return Optional.of(customer);
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<Customer> found = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += IN_LIST_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + IN_LIST_SIZE, distinct.size()));
+            String customerSql = CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            found.addAll(jdbc.query(customerSql, CustomerRowMapper.INSTANCE, chunk.toArray()));
+        }
+        return found;
     }
 
     @Override
     public List<Customer> findAll() {
-        String customerSql = "SELECT * FROM customer";
-        return jdbc.query(customerSql, (rs, rowNum) -> {
-            Long id = rs.getLong("id");
-            CustomerType type = CustomerType.valueOf(rs.getString("type"));
-
-            if (type == CustomerType.REAL) {
-                String realCustomerSql = "SELECT * FROM real_customer WHERE id = ?";
-                Map<String, Object> realCustomerRow = jdbc.queryForMap(realCustomerSql, id);
-                return RealCustomer.builder()
-                        .id(id)
-                        .name(rs.getString("name"))
-                        .family(rs.getString("family"))
-                        .phoneNumber(rs.getString("phone_number"))
-                        .type(type)
-                        .nationality((String) realCustomerRow.get("nationality"))
-                        .build();
-            } else {
-                String legalCustomerSql = "SELECT * FROM legal_customer WHERE id = ?";
-                Map<String, Object> legalCustomerRow = jdbc.queryForMap(legalCustomerSql, id);
-                return LegalCustomer.builder()
-                        .id(id)
-                        .name(rs.getString("name"))
-                        .family(rs.getString("family"))
-                        .phoneNumber(rs.getString("phone_number"))
-                        .type(type)
-                        .industry((String) legalCustomerRow.get("industry"))
-                        .build();
-            }
+        return jdbc.query(CustomerRowMapper.SELECT_CUSTOMER, CustomerRowMapper.INSTANCE);
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        String customerSql = CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.id > ? ORDER BY c.id LIMIT ?";
+        return jdbc.query(customerSql, CustomerRowMapper.INSTANCE, afterId == null ? 0L : afterId, limit);
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        streamAll(CustomerRowMapper.INSTANCE, action);
+    }
+
+    @Override
+    public List<CustomerView> findViewPage(Long afterId, int limit) {
+        String customerSql = CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.id > ? ORDER BY c.id LIMIT ?";
+        return jdbc.query(customerSql, CustomerRowMapper.VIEW, afterId == null ? 0L : afterId, limit);
+    }
+
+    @Override
+    public void forEachView(Consumer<? super CustomerView> action) {
+        streamAll(CustomerRowMapper.VIEW, action);
+    }
+
+    private <T> void streamAll(RowMapper<T> rowMapper, Consumer<? super T> action) {
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CustomerRowMapper.SELECT_CUSTOMER + " ORDER BY c.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            action.accept(rowMapper.mapRow(rs, rs.getRow()));
         });
     }
 
     @Override
     public List<Customer> findByNameIgnoreCase(String name) {
-        String customerSql = "SELECT * FROM customer WHERE LOWER(name) = LOWER(?)";
-        return jdbc.query(customerSql, (rs, rowNum) -> {
-            Long id = rs.getLong("id");
-            CustomerType type = CustomerType.valueOf(rs.getString("type"));
-
-            if (type == CustomerType.REAL) {
-                String realCustomerSql = "SELECT * FROM real_customer WHERE id = ?";
-                Map<String, Object> realCustomerRow = jdbc.queryForMap(realCustomerSql, id);
-                return RealCustomer.builder()
-                        .id(id)
-                        .name(rs.getString("name"))
-                        .family(rs.getString("family"))
-                        .phoneNumber(rs.getString("phone_number"))
-                        .type(type)
-                        .nationality((String) realCustomerRow.get("nationality"))
-                        .build();
-            } else {
-                String legalCustomerSql = "SELECT * FROM legal_customer WHERE id = ?";
-                Map<String, Object> legalCustomerRow = jdbc.queryForMap(legalCustomerSql, id);
-                return LegalCustomer.builder()
-                        .id(id)
-                        .name(rs.getString("name"))
-                        .family(rs.getString("family"))
-                        .phoneNumber(rs.getString("phone_number"))
-                        .type(type)
-                        .industry((String) legalCustomerRow.get("industry"))
-                        .build();
-            }
-        }, name);
+        String customerSql = CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.name_lower = LOWER(?)";
+        return jdbc.query(customerSql, CustomerRowMapper.INSTANCE, name);
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM customer", Long.class);
+        return count != null ? count : 0;
     }
 
     @Override
@@ -211,8 +323,19 @@ public class CustomerJdbcDao implements CustomerDao {
 
     @Override
     public boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(String name, String family) {
-        String sql = "SELECT COUNT(*) FROM customer WHERE LOWER(name) = LOWER(?) AND LOWER(family) = LOWER(?) ";
-        Integer count = jdbc.queryForObject(sql, Integer.class, name, family);
-        return count != null && count > 0;
+        String sql = "SELECT EXISTS (SELECT 1 FROM customer WHERE name_lower = LOWER(?) AND family_lower = LOWER(?))";
+        return Boolean.TRUE.equals(jdbc.queryForObject(sql, Boolean.class, name, family));
+    }
+
+    private static DuplicatedCustomerException duplicated(Customer customer, DuplicateKeyException cause) {
+        return new DuplicatedCustomerException("Customer with full name " + customer.getName() + " "
+                + customer.getFamily() + " already exists", cause);
+    }
+
+    private void validate(Customer customer) {
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
     }
 }
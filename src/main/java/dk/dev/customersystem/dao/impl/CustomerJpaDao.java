@@ -1,15 +1,127 @@
 package dk.dev.customersystem.dao.impl;
 
 import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.exception.CustomerVersionConflictException;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
 import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @Primary
 @Repository
 @Profile("jpa")
-public interface CustomerJpaDao extends JpaRepository<Customer,Long>, CustomerDao {
+public interface CustomerJpaDao extends JpaRepository<Customer,Long>, CustomerJpaStreaming, CustomerDao {
+
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Derived ignore-case queries compare UPPER(name), which no index covers; the generated
+    // lower-case columns of schema.sql are indexed by the full name constraint.
+    @Query(value = "SELECT id FROM customer WHERE name_lower = LOWER(:name)", nativeQuery = true)
+    List<Long> findIdsByNameLower(@Param("name") String name);
+
+    // Spring Data's own findAllById(Iterable) loads them with one IN query.
+    @Override
+    default List<Customer> findAllById(Collection<Long> ids) {
+        return findAllById((Iterable<Long>) ids);
+    }
+
+    @Override
+    default List<Customer> findByNameIgnoreCase(String name) {
+        return findAllById(findIdsByNameLower(name));
+    }
+
+    @Override
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM customer WHERE name_lower = LOWER(:name) AND family_lower = LOWER(:family))",
+            nativeQuery = true)
+    boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(@Param("name") String name, @Param("family") String family);
+
+    @Override
+    default List<Customer> saveAll(Collection<Customer> customers) {
+        try {
+            return saveAll((Iterable<Customer>) customers);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicatedCustomerException("A customer of the batch has the full name of an existing customer", e);
+        }
+    }
+
+    // The version is cleared as well: a rolled-back saveAll leaves the one set at persist, and
+    // with it save would merge a copy instead of persisting the customer itself.
+    @Override
+    default Optional<Customer> insertIfAbsent(Customer customer) {
+        customer.setId(null);
+        customer.setVersion(null);
+        try {
+            return Optional.of(saveAndFlush(customer));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    // findById and save are inherited from both CrudRepository and CustomerDao; calling them
+    // through CustomerDao keeps the calls unambiguous. Without a version the update applies to
+    // whatever is stored; a customer without one would be taken for a new entity by save. A merge
+    // that changes nothing issues no UPDATE, so the version is then bumped explicitly.
+    @Override
+    @Transactional
+    default int update(Customer customer) {
+        CustomerDao dao = this;
+        Optional<Customer> stored = customer.getId() != null ? dao.findById(customer.getId()) : Optional.empty();
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        long version = customer.getVersion() != null ? customer.getVersion() : stored.get().getVersion();
+        customer.setVersion(version);
+        Customer saved;
+        try {
+            saved = saveAndFlush(customer);
+        } catch (OptimisticLockingFailureException e) {
+            throw new CustomerVersionConflictException("Customer with id " + customer.getId()
+                    + " is no longer at version " + version);
+        }
+        if (saved.getVersion() == version && incrementVersion(customer.getId(), version) == 0) {
+            throw new CustomerVersionConflictException("Customer with id " + customer.getId()
+                    + " is no longer at version " + version);
+        }
+        customer.setVersion(version + 1);
+        return 1;
+    }
+
+    @Modifying
+    @Query(value = "UPDATE customer SET version = version + 1 WHERE id = :id AND version = :version", nativeQuery = true)
+    int incrementVersion(@Param("id") Long id, @Param("version") long version);
+
+    // OLD TABLE hands back the version of the deleted row from the DELETE itself; the subtype
+    // rows go with it through ON DELETE CASCADE.
+    @Override
+    @Transactional
+    @Query(value = "SELECT version FROM OLD TABLE (DELETE FROM customer WHERE id = :id)", nativeQuery = true)
+    Optional<Long> removeById(@Param("id") Long id);
+
+    @Override
+    default List<Customer> findPage(Long afterId, int limit) {
+        return findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    // Implemented by CustomerJpaStreamingImpl; redeclared to override the defaults of CustomerDao.
+    @Override
+    List<CustomerView> findViewPage(Long afterId, int limit);
+
+    @Override
+    void forEachView(Consumer<? super CustomerView> action);
 }
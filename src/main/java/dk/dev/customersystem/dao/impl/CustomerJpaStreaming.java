@@ -0,0 +1,13 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CustomerJpaStreaming {
+    void forEachCustomer(Consumer<? super Customer> action);
+    List<CustomerView> findViewPage(Long afterId, int limit);
+    void forEachView(Consumer<? super CustomerView> action);
+}
@@ -0,0 +1,74 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Scrolls over all customers and detaches each one after it has been handed out,
+ * so the persistence context does not grow with the size of the table. Projections are read
+ * with native queries, so they never enter the persistence context at all.
+ */
+public class CustomerJpaStreamingImpl implements CustomerJpaStreaming {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    public CustomerJpaStreamingImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        try (Stream<Customer> customers = entityManager
+                .createQuery("select c from Customer c order by c.id", Customer.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            customers.forEach(customer -> {
+                action.accept(customer);
+                entityManager.detach(customer);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerView> findViewPage(Long afterId, int limit) {
+        List<?> rows = entityManager
+                .createNativeQuery(CustomerRowMapper.SELECT_CUSTOMER + " WHERE c.id > ?1 ORDER BY c.id LIMIT ?2")
+                .setParameter(1, afterId == null ? 0L : afterId)
+                .setParameter(2, limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> toView((Object[]) row))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachView(Consumer<? super CustomerView> action) {
+        try (Stream<?> rows = entityManager
+                .createNativeQuery(CustomerRowMapper.SELECT_CUSTOMER + " ORDER BY c.id")
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(row -> action.accept(toView((Object[]) row)));
+        }
+    }
+
+    // Columns in the order of CustomerRowMapper.SELECT_CUSTOMER.
+    private static CustomerView toView(Object[] row) {
+        CustomerType type = CustomerType.valueOf((String) row[4]);
+        return new CustomerView(type, ((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                (String) row[3], type == CustomerType.REAL ? (String) row[5] : null,
+                type == CustomerType.LEGAL ? (String) row[6] : null);
+    }
+}
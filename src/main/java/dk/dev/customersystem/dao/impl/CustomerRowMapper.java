@@ -0,0 +1,69 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps one row of {@link #SELECT_CUSTOMER} to a {@link RealCustomer} or {@link LegalCustomer},
+ * depending on the {@code type} column. Columns are read by position, so queries must keep the
+ * select list of {@link #SELECT_CUSTOMER} and only append clauses to it. {@link #VIEW} maps the
+ * same rows to projections.
+ */
+public final class CustomerRowMapper implements RowMapper<Customer> {
+
+    public static final CustomerRowMapper INSTANCE = new CustomerRowMapper();
+
+    public static final String SELECT_CUSTOMER =
+            "SELECT c.id, c.name, c.family, c.phone_number, c.type, r.nationality, l.industry, c.version " +
+            "FROM customer c " +
+            "LEFT JOIN real_customer r ON r.id = c.id " +
+            "LEFT JOIN legal_customer l ON l.id = c.id";
+
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int FAMILY = 3;
+    private static final int PHONE_NUMBER = 4;
+    private static final int TYPE = 5;
+    private static final int NATIONALITY = 6;
+    private static final int INDUSTRY = 7;
+    private static final int VERSION = 8;
+
+    public static final RowMapper<CustomerView> VIEW = (rs, rowNum) -> {
+        CustomerType type = CustomerType.valueOf(rs.getString(TYPE));
+        return new CustomerView(type, rs.getLong(ID), rs.getString(NAME), rs.getString(FAMILY),
+                rs.getString(PHONE_NUMBER), type == CustomerType.REAL ? rs.getString(NATIONALITY) : null,
+                type == CustomerType.LEGAL ? rs.getString(INDUSTRY) : null);
+    };
+
+    private CustomerRowMapper() {
+    }
+
+    @Override
+    public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
+        CustomerType type = CustomerType.valueOf(rs.getString(TYPE));
+        Customer customer;
+        if (type == CustomerType.REAL) {
+            RealCustomer realCustomer = new RealCustomer();
+            realCustomer.setNationality(rs.getString(NATIONALITY));
+            customer = realCustomer;
+        } else {
+            LegalCustomer legalCustomer = new LegalCustomer();
+            legalCustomer.setIndustry(rs.getString(INDUSTRY));
+            customer = legalCustomer;
+        }
+        customer.setId(rs.getLong(ID));
+        customer.setName(rs.getString(NAME));
+        customer.setFamily(rs.getString(FAMILY));
+        customer.setPhoneNumber(rs.getString(PHONE_NUMBER));
+        customer.setType(type);
+        customer.setVersion(rs.getLong(VERSION));
+        return customer;
+    }
+}
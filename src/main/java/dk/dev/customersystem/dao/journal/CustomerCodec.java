@@ -0,0 +1,103 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of a customer: the id, a type byte and four length-prefixed UTF-8 strings
+ * (name, family, phone number and nationality or industry), then the version. A length of -1
+ * encodes {@code null}. Records written before versions were added end after the strings and
+ * decode with version 0.
+ */
+public final class CustomerCodec {
+
+    private static final byte REAL = 0;
+    private static final byte LEGAL = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private CustomerCodec() {
+    }
+
+    public static byte[] encode(Customer customer) {
+        byte[] name = utf8(customer.getName());
+        byte[] family = utf8(customer.getFamily());
+        byte[] phoneNumber = utf8(customer.getPhoneNumber());
+        byte[] detail = utf8(detailOf(customer));
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 1
+                + sizeOf(name) + sizeOf(family) + sizeOf(phoneNumber) + sizeOf(detail) + Long.BYTES);
+        buffer.putLong(customer.getId());
+        buffer.put(customer instanceof LegalCustomer ? LEGAL : REAL);
+        put(buffer, name);
+        put(buffer, family);
+        put(buffer, phoneNumber);
+        put(buffer, detail);
+        buffer.putLong(customer.getVersion() != null ? customer.getVersion() : 0);
+        return buffer.array();
+    }
+
+    public static Customer decode(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        byte type = buffer.get();
+        String name = getString(buffer);
+        String family = getString(buffer);
+        String phoneNumber = getString(buffer);
+        String detail = getString(buffer);
+        long version = buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0;
+        Customer customer;
+        if (type == LEGAL) {
+            LegalCustomer legalCustomer = new LegalCustomer();
+            legalCustomer.setIndustry(detail);
+            customer = legalCustomer;
+        } else {
+            RealCustomer realCustomer = new RealCustomer();
+            realCustomer.setNationality(detail);
+            customer = realCustomer;
+        }
+        customer.setId(id);
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setPhoneNumber(phoneNumber);
+        customer.setVersion(version);
+        return customer;
+    }
+
+    private static String detailOf(Customer customer) {
+        if (customer instanceof RealCustomer realCustomer) {
+            return realCustomer.getNationality();
+        }
+        if (customer instanceof LegalCustomer legalCustomer) {
+            return legalCustomer.getIndustry();
+        }
+        return null;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sizeOf(byte[] value) {
+        return Integer.BYTES + (value != null ? value.length : 0);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
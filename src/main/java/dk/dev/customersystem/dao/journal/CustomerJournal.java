@@ -0,0 +1,57 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.model.Customer;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Durability hook for the in-memory store. Writes are applied to memory and appended to the
+ * journal between {@link #beginWrite()} and {@link #endWrite()}; callers then wait with
+ * {@link #awaitDurable(long)} outside of any lock. {@link #NONE} keeps the store memory only.
+ */
+public interface CustomerJournal extends Closeable {
+
+    CustomerJournal NONE = new CustomerJournal() {
+    };
+
+    /**
+     * Loads every persisted customer into {@code loader} and starts journaling. Snapshots read
+     * the live state from {@code source}.
+     *
+     * @return the highest customer id that was ever assigned
+     */
+    default long open(Consumer<Customer> loader, Source source) {
+        return 0;
+    }
+
+    default void beginWrite() {
+    }
+
+    default void endWrite() {
+    }
+
+    /** @return the log position to pass to {@link #awaitDurable(long)} */
+    default long appendPut(Customer customer) {
+        return 0;
+    }
+
+    /** @return the log position to pass to {@link #awaitDurable(long)} */
+    default long appendDelete(long id) {
+        return 0;
+    }
+
+    default void awaitDurable(long position) {
+    }
+
+    @Override
+    default void close() {
+    }
+
+    interface Source {
+
+        long lastId();
+
+        void forEachCustomer(Consumer<? super Customer> action);
+    }
+}
@@ -0,0 +1,13 @@
+package dk.dev.customersystem.dao.journal;
+
+/**
+ * When the write-ahead log forces written records to disk.
+ */
+public enum FsyncPolicy {
+    /** Every group commit is forced before the writes in it are acknowledged. */
+    ALWAYS,
+    /** Writes are acknowledged once written; the log is forced at most once per fsync interval. */
+    INTERVAL,
+    /** Writes are acknowledged once written; the operating system decides when to flush. */
+    NEVER
+}
@@ -0,0 +1,111 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.model.Customer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the whole store: a header with the last assigned id, length-prefixed
+ * {@link CustomerCodec} records, an end marker and a checksum. {@code snapshot-N.bin} holds
+ * everything logged before segment N. It is written to a temporary file and moved into place,
+ * so a crash mid-snapshot leaves the previous snapshot and its segments untouched.
+ */
+final class SnapshotFile {
+
+    private static final long MAGIC = 0x43555354534E4150L;
+    private static final int VERSION = 1;
+    private static final int END = -1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotFile() {
+    }
+
+    static Path snapshotFile(Path directory, long segment) {
+        return directory.resolve(String.format("snapshot-%020d.bin", segment));
+    }
+
+    static long segmentOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("snapshot-") && name.endsWith(".bin")
+                ? Long.parseLong(name.substring(9, name.length() - 4)) : -1;
+    }
+
+    static void write(Path directory, long segment, CustomerJournal.Source source) throws IOException {
+        Path target = snapshotFile(directory, segment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), crc));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(source.lastId());
+            try {
+                source.forEachCustomer(customer -> {
+                    byte[] record = CustomerCodec.encode(customer);
+                    try {
+                        out.writeInt(record.length);
+                        out.write(record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.writeInt(END);
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(directory);
+    }
+
+    /** @return the last assigned id recorded in the snapshot */
+    static long read(Path file, Consumer<Customer> loader) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), crc))) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a customer snapshot: " + file);
+            }
+            long lastId = in.readLong();
+            for (int length = in.readInt(); length != END; length = in.readInt()) {
+                byte[] record = new byte[length];
+                in.readFully(record);
+                loader.accept(CustomerCodec.decode(ByteBuffer.wrap(record)));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupt customer snapshot: " + file);
+            }
+            return lastId;
+        }
+    }
+
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the entry is flushed with the file system then.
+        }
+    }
+}
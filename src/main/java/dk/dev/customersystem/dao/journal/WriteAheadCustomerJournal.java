@@ -0,0 +1,193 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.model.Customer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Journals the in-memory store to a {@link WriteAheadLog} and compacts it into periodic
+ * {@link SnapshotFile snapshots}. Recovery loads the latest snapshot, replays the segments
+ * written after it and only then hands the final state to the store, so replay never sees
+ * intermediate unique-name conflicts.
+ * <p>
+ * Writers hold the read side of {@code barrier} while they apply and append a write. A
+ * snapshot takes the write side only to mark the segment boundary, so every write logged
+ * before the boundary is already visible to the snapshot. Writes after the boundary may show
+ * up in the snapshot too; replaying them again is harmless because each record carries the
+ * full customer state.
+ */
+@Slf4j
+public class WriteAheadCustomerJournal implements CustomerJournal {
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final Duration fsyncInterval;
+    private final Duration snapshotInterval;
+    private final ReentrantReadWriteLock barrier = new ReentrantReadWriteLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService compactor;
+    private WriteAheadLog wal;
+    private Source source;
+    private long snapshotPosition;
+
+    public WriteAheadCustomerJournal(Path directory, FsyncPolicy fsyncPolicy, Duration fsyncInterval,
+                                     Duration snapshotInterval) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = fsyncInterval;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public long open(Consumer<Customer> loader, Source source) {
+        try {
+            Files.createDirectories(directory);
+            long snapshotSegment = latest(SnapshotFile::segmentOf);
+            Map<Long, Customer> state = new HashMap<>();
+            long lastId = snapshotSegment < 0 ? 0
+                    : SnapshotFile.read(SnapshotFile.snapshotFile(directory, snapshotSegment),
+                    customer -> state.put(customer.getId(), customer));
+            long[] lastLoggedId = {lastId};
+            List<Path> segments = files(WriteAheadLog::segmentOf, Math.max(snapshotSegment, 0));
+            for (Path segment : segments) {
+                WriteAheadLog.replay(segment, customer -> {
+                    state.put(customer.getId(), customer);
+                    lastLoggedId[0] = Math.max(lastLoggedId[0], customer.getId());
+                }, state::remove);
+            }
+            state.values().forEach(loader);
+            long nextSegment = Math.max(latest(WriteAheadLog::segmentOf) + 1, Math.max(snapshotSegment, 1));
+            this.source = source;
+            // Replayed segments are folded into a snapshot at the next compaction.
+            this.snapshotPosition = segments.isEmpty() ? 0 : -1;
+            this.wal = new WriteAheadLog(directory, nextSegment, fsyncPolicy, fsyncInterval.toNanos());
+            this.compactor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("customer-journal-compactor").daemon().factory());
+            long interval = snapshotInterval.toMillis();
+            compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+            return lastLoggedId[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover customers from " + directory, e);
+        }
+    }
+
+    @Override
+    public void beginWrite() {
+        barrier.readLock().lock();
+    }
+
+    @Override
+    public void endWrite() {
+        barrier.readLock().unlock();
+    }
+
+    @Override
+    public long appendPut(Customer customer) {
+        return wal.append(WriteAheadLog.put(customer));
+    }
+
+    @Override
+    public long appendDelete(long id) {
+        return wal.append(WriteAheadLog.delete(id));
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        wal.awaitAcknowledged(position);
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the segments and snapshots it replaces.
+     * Does nothing when nothing was written since the last snapshot.
+     */
+    public void compact() throws IOException {
+        snapshotLock.lock();
+        try {
+            long position;
+            barrier.writeLock().lock();
+            try {
+                position = wal.appendedPosition();
+                if (position == snapshotPosition) {
+                    return;
+                }
+                wal.requestRoll();
+            } finally {
+                barrier.writeLock().unlock();
+            }
+            long segment = wal.awaitRoll();
+            SnapshotFile.write(directory, segment, source);
+            snapshotPosition = position;
+            for (Path file : files(WriteAheadLog::segmentOf, 0)) {
+                if (WriteAheadLog.segmentOf(file) < segment) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            for (Path file : files(SnapshotFile::segmentOf, 0)) {
+                if (SnapshotFile.segmentOf(file) < segment) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (wal == null) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+            try {
+                compact();
+            } finally {
+                wal.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close customer journal in " + directory, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Customer snapshot failed, the log keeps growing until the next attempt", e);
+        }
+    }
+
+    private long latest(ToLongFunction<Path> segmentOf) throws IOException {
+        List<Path> files = files(segmentOf, 0);
+        return files.isEmpty() ? -1 : segmentOf.applyAsLong(files.get(files.size() - 1));
+    }
+
+    // Files of one kind numbered from minimum onwards, in segment order.
+    private List<Path> files(ToLongFunction<Path> segmentOf, long minimum) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> segmentOf.applyAsLong(file) >= minimum)
+                    .sorted(Comparator.comparingLong(segmentOf))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.model.Customer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of customer writes, split into numbered segment files. Appends are queued in
+ * memory and written by a single writer thread, which writes everything queued since its last
+ * pass with one gathering write and at most one fsync, so concurrent writers share the cost of
+ * a commit. Each record is framed as {@code [length][crc32c][op][data]}; replay stops at the
+ * first torn or corrupt record and truncates the segment there.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private final Condition progressed = lock.newCondition();
+    private final Thread writer;
+
+    // Guarded by lock.
+    private List<ByteBuffer> queue = new ArrayList<>();
+    private long appendedPosition;
+    private long acknowledgedPosition;
+    private long rollPosition = -1;
+    private long segment;
+    private IOException failure;
+    private boolean closed;
+
+    // Owned by the writer thread.
+    private FileChannel channel;
+    private long writtenPosition;
+    private boolean dirty;
+    private long lastSync = System.nanoTime();
+
+    WriteAheadLog(Path directory, long segment, FsyncPolicy fsyncPolicy, long fsyncIntervalNanos) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalNanos;
+        openSegment(segment);
+        this.writer = Thread.ofPlatform().name("customer-journal-writer").daemon().start(this::run);
+    }
+
+    static Path segmentFile(Path directory, long segment) {
+        return directory.resolve(String.format("wal-%020d.log", segment));
+    }
+
+    static long segmentOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("wal-") && name.endsWith(".log")
+                ? Long.parseLong(name.substring(4, name.length() - 4)) : -1;
+    }
+
+    static ByteBuffer put(Customer customer) {
+        return frame(PUT, CustomerCodec.encode(customer));
+    }
+
+    static ByteBuffer delete(long id) {
+        return frame(DELETE, ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+    }
+
+    long append(ByteBuffer record) {
+        lock.lock();
+        try {
+            checkWritable();
+            queue.add(record);
+            queued.signal();
+            return ++appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitAcknowledged(long position) {
+        lock.lock();
+        try {
+            while (acknowledgedPosition < position) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+                progressed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long appendedPosition() {
+        lock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment after the records appended so far. The caller must keep appends out
+     * while requesting, so that the boundary matches the state it is about to snapshot.
+     */
+    void requestRoll() {
+        lock.lock();
+        try {
+            checkWritable();
+            rollPosition = appendedPosition;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of the segment started by the pending roll */
+    long awaitRoll() {
+        lock.lock();
+        try {
+            while (rollPosition >= 0) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+                progressed.awaitUninterruptibly();
+            }
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private void run() {
+        try {
+            boolean closing;
+            do {
+                List<ByteBuffer> batch;
+                long roll;
+                lock.lock();
+                try {
+                    if (queue.isEmpty() && rollPosition < 0 && !closed) {
+                        if (dirty && fsyncPolicy == FsyncPolicy.INTERVAL) {
+                            queued.awaitNanos(fsyncIntervalNanos);
+                        } else {
+                            queued.await();
+                        }
+                    }
+                    batch = queue;
+                    queue = new ArrayList<>();
+                    roll = rollPosition;
+                    closing = closed;
+                } finally {
+                    lock.unlock();
+                }
+                int split = roll < 0 ? batch.size() : (int) (roll - writtenPosition);
+                write(batch.subList(0, split));
+                if (roll >= 0) {
+                    sync();
+                    channel.close();
+                    openSegment(segment + 1);
+                    write(batch.subList(split, batch.size()));
+                }
+                if (closing) {
+                    sync();
+                    channel.close();
+                } else if (dirty && (fsyncPolicy == FsyncPolicy.ALWAYS || fsyncPolicy == FsyncPolicy.INTERVAL
+                        && System.nanoTime() - lastSync >= fsyncIntervalNanos)) {
+                    sync();
+                }
+                acknowledge(roll >= 0);
+            } while (!closing);
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new IOException("Write-ahead log writer was interrupted", e));
+        }
+    }
+
+    private void write(List<ByteBuffer> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = records.toArray(ByteBuffer[]::new);
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        writtenPosition += records.size();
+        dirty = true;
+    }
+
+    private void sync() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+        lastSync = System.nanoTime();
+    }
+
+    private void acknowledge(boolean rolled) {
+        lock.lock();
+        try {
+            acknowledgedPosition = writtenPosition;
+            if (rolled) {
+                rollPosition = -1;
+            }
+            progressed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(IOException e) {
+        log.error("Write-ahead log writer stopped", e);
+        lock.lock();
+        try {
+            failure = e;
+            progressed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        FileChannel opened = FileChannel.open(segmentFile(directory, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        SnapshotFile.syncDirectory(directory);
+        lock.lock();
+        try {
+            channel = opened;
+            segment = number;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays one segment. A torn or corrupt record ends the segment: everything after it is
+     * truncated, since it was never acknowledged as durable.
+     */
+    static void replay(Path file, Consumer<Customer> onPut, LongConsumer onDelete) throws IOException {
+        long size = Files.size(file);
+        long valid = 0;
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), READ_BUFFER_SIZE))) {
+            while (valid < size) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 1 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                ByteBuffer data = ByteBuffer.wrap(payload, 1, length - 1);
+                if (payload[0] == PUT) {
+                    onPut.accept(CustomerCodec.decode(data));
+                } else if (payload[0] == DELETE) {
+                    onDelete.accept(data.getLong());
+                } else {
+                    break;
+                }
+                valid += HEADER_SIZE + length;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end of the segment.
+        }
+        if (valid < size) {
+            log.warn("Truncating {} from {} to {} bytes after a torn or corrupt record", file, size, valid);
+            try (FileChannel truncated = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncated.truncate(valid);
+                truncated.force(true);
+            }
+        }
+    }
+
+    private static ByteBuffer frame(byte op, byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(op);
+        crc.update(data);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + 1 + data.length);
+        record.putInt(1 + data.length).putInt((int) crc.getValue()).put(op).put(data).flip();
+        return record;
+    }
+}
@@ -0,0 +1,200 @@
+package dk.dev.customersystem.dao.memory;
+
+import dk.dev.customersystem.dao.journal.CustomerCodec;
+import dk.dev.customersystem.model.Customer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps customers as packed {@link CustomerCodec} records in 1 MiB byte-array slabs, located
+ * through a {@link LongLongHashMap} from id to {@code slab << 32 | position}. A few large arrays
+ * replace millions of small objects, so the heap holds far less and the GC has almost nothing to
+ * trace. Customers are only materialized on read, as fresh copies.
+ * <p>
+ * Ids are spread over independently locked stripes, each with its own index and slabs. Records
+ * are append-only; a rewrite leaves the old record as garbage, and a stripe compacts its slabs
+ * once garbage outweighs live data.
+ */
+public class BinaryCustomerStore implements CustomerStore {
+
+    private static final int STRIPES = 64;
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public BinaryCustomerStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    BinaryCustomerStore(int slabSize) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(slabSize);
+        }
+    }
+
+    @Override
+    public Customer get(long id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.readLock().lock();
+        try {
+            long offset = stripe.offsets.get(id);
+            return offset < 0 ? null : stripe.read(offset);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.offsets.containsKey(id);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Customer compute(long id, UnaryOperator<Customer> remapping) {
+        return compute(id, remapping, false);
+    }
+
+    @Override
+    public Customer computeIfPresent(long id, UnaryOperator<Customer> remapping) {
+        return compute(id, remapping, true);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Customer> action) {
+        List<Customer> batch = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            // Decode under the lock, call back outside of it.
+            stripe.lock.readLock().lock();
+            try {
+                stripe.offsets.forEach((id, offset) -> batch.add(stripe.read(offset)));
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                size += stripe.offsets.size();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    private Customer compute(long id, UnaryOperator<Customer> remapping, boolean onlyIfPresent) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.writeLock().lock();
+        try {
+            long offset = stripe.offsets.get(id);
+            if (offset < 0 && onlyIfPresent) {
+                return null;
+            }
+            Customer customer = remapping.apply(offset < 0 ? null : stripe.read(offset));
+            if (customer == null) {
+                if (offset >= 0) {
+                    stripe.offsets.remove(id);
+                    stripe.release(offset);
+                }
+                return null;
+            }
+            stripe.offsets.put(id, stripe.append(CustomerCodec.encode(customer)));
+            if (offset >= 0) {
+                stripe.release(offset);
+            }
+            return customer;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    private Stripe stripeOf(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 58)];
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongLongHashMap offsets = new LongLongHashMap(-1);
+        private final int slabSize;
+        private List<byte[]> slabs = new ArrayList<>();
+        private int position;
+        private long liveBytes;
+        private long garbageBytes;
+
+        Stripe(int slabSize) {
+            this.slabSize = slabSize;
+        }
+
+        Customer read(long offset) {
+            byte[] slab = slabs.get((int) (offset >>> 32));
+            int start = (int) offset;
+            int length = (int) INT.get(slab, start);
+            return CustomerCodec.decode(ByteBuffer.wrap(slab, start + Integer.BYTES, length));
+        }
+
+        long append(byte[] record) {
+            int size = Integer.BYTES + record.length;
+            if (slabs.isEmpty() || position + size > slabs.get(slabs.size() - 1).length) {
+                slabs.add(new byte[Math.max(slabSize, size)]);
+                position = 0;
+            }
+            byte[] slab = slabs.get(slabs.size() - 1);
+            INT.set(slab, position, record.length);
+            System.arraycopy(record, 0, slab, position + Integer.BYTES, record.length);
+            long offset = (long) (slabs.size() - 1) << 32 | position;
+            position += size;
+            liveBytes += size;
+            return offset;
+        }
+
+        void release(long offset) {
+            int size = Integer.BYTES + (int) INT.get(slabs.get((int) (offset >>> 32)), (int) offset);
+            liveBytes -= size;
+            garbageBytes += size;
+            if (garbageBytes > slabSize && garbageBytes > liveBytes) {
+                compact();
+            }
+        }
+
+        // Copies the live records into fresh slabs; callers hold the write lock.
+        private void compact() {
+            List<byte[]> oldSlabs = slabs;
+            slabs = new ArrayList<>();
+            position = 0;
+            liveBytes = 0;
+            garbageBytes = 0;
+            offsets.replaceValues((id, offset) -> {
+                byte[] slab = oldSlabs.get((int) (offset >>> 32));
+                int start = (int) offset;
+                int length = (int) INT.get(slab, start);
+                byte[] record = new byte[length];
+                System.arraycopy(slab, start + Integer.BYTES, record, 0, length);
+                return append(record);
+            });
+        }
+    }
+}
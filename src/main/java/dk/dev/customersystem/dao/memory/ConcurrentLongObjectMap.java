@@ -0,0 +1,247 @@
+package dk.dev.customersystem.dao.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent map from a primitive {@code long} to a non-null value. Keys are spread over
+ * lock-striped segments, each an open-addressing table with linear probing, so an entry costs a
+ * {@code long} and a reference instead of a node and a boxed key. Reads are optimistic: they
+ * probe without locking and only fall back to the read lock when a write to the same segment
+ * interfered. {@link Long#MIN_VALUE} marks empty slots and cannot be used as a key; lookups of
+ * it simply miss.
+ */
+public final class ConcurrentLongObjectMap<V> {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int SEGMENTS = 64;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final Segment<V>[] segments;
+
+    public ConcurrentLongObjectMap() {
+        this(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int expectedSize) {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(expectedSize / SEGMENTS);
+        }
+    }
+
+    /** @return the value, or {@code null} when absent */
+    public V get(long key) {
+        return key == EMPTY ? null : segmentFor(key).get(key);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Same contract as {@link java.util.Map#compute}, atomic per key. The segment lock is not
+     * reentrant, so {@code remapping} must not access this map.
+     */
+    public V compute(long key, UnaryOperator<V> remapping) {
+        return segmentFor(checkKey(key)).compute(key, remapping, false);
+    }
+
+    /** Same contract as {@link java.util.Map#computeIfPresent}, atomic per key. */
+    public V computeIfPresent(long key, UnaryOperator<V> remapping) {
+        return key == EMPTY ? null : segmentFor(key).compute(key, remapping, true);
+    }
+
+    /** Visits a copy of each segment, so {@code action} never runs under a lock. */
+    public void forEach(Consumer<? super V> action) {
+        List<V> batch = new ArrayList<>();
+        for (Segment<V> segment : segments) {
+            segment.copyValuesTo(batch);
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment<V> segmentFor(long key) {
+        return segments[(int) (hash(key) >>> 58)];
+    }
+
+    private static long checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        return key;
+    }
+
+    private static long hash(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = hash(key);
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static final class Segment<V> {
+
+        private final StampedLock lock = new StampedLock();
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        Segment(int expectedSize) {
+            allocate(capacityFor(expectedSize));
+        }
+
+        V get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object value = find(keys, values, key);
+                if (lock.validate(stamp)) {
+                    return cast(value);
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return cast(find(keys, values, key));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V compute(long key, UnaryOperator<V> remapping, boolean onlyIfPresent) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int slot = slot(key, mask);
+                while (keys[slot] != EMPTY && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                boolean present = keys[slot] == key;
+                if (!present && onlyIfPresent) {
+                    return null;
+                }
+                V value = remapping.apply(present ? cast(values[slot]) : null);
+                if (value != null) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    if (!present && ++size > keys.length / 4 * 3) {
+                        resize();
+                    }
+                } else if (present) {
+                    delete(slot);
+                }
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyValuesTo(List<V> target) {
+            long stamp = lock.readLock();
+            try {
+                for (Object value : values) {
+                    if (value != null) {
+                        target.add(cast(value));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // Must tolerate arrays torn by a concurrent write: the caller validates before using the result.
+        private static Object find(long[] keys, Object[] values, long key) {
+            if (keys.length != values.length) {
+                return null;
+            }
+            int mask = keys.length - 1;
+            for (int probe = 0, slot = slot(key, mask); probe <= mask; probe++, slot = (slot + 1) & mask) {
+                long current = keys[slot];
+                if (current == key) {
+                    return values[slot];
+                }
+                if (current == EMPTY) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        // Backward-shift deletion keeps probe runs intact without tombstones.
+        private void delete(int slot) {
+            int mask = keys.length - 1;
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = slot(keys[next], mask);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = null;
+            size--;
+        }
+
+        private void resize() {
+            if (keys.length == MAX_CAPACITY) {
+                throw new IllegalStateException("ConcurrentLongObjectMap segment is full");
+            }
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            allocate(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            long[] newKeys = new long[capacity];
+            Arrays.fill(newKeys, EMPTY);
+            keys = newKeys;
+            values = new Object[capacity];
+        }
+
+        private static int capacityFor(int expectedSize) {
+            long wanted = Math.max(16, (long) Math.ceil(expectedSize / 0.75));
+            return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(wanted - 1) << 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package dk.dev.customersystem.dao.memory;
+
+import dk.dev.customersystem.model.Customer;
+
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Record storage behind {@link dk.dev.customersystem.dao.impl.CustomerInMemoryDao}, keyed by id.
+ * The compute methods follow {@link java.util.Map#compute}: the remapping function runs
+ * atomically with respect to other writes of the same id, and returning {@code null} removes
+ * the customer.
+ */
+public interface CustomerStore {
+
+    /** @return the customer, or {@code null} when absent */
+    Customer get(long id);
+
+    boolean contains(long id);
+
+    Customer compute(long id, UnaryOperator<Customer> remapping);
+
+    Customer computeIfPresent(long id, UnaryOperator<Customer> remapping);
+
+    /** Visits every customer in no particular order. */
+    void forEach(Consumer<? super Customer> action);
+
+    int size();
+}
@@ -0,0 +1,177 @@
+package dk.dev.customersystem.dao.memory;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Open-addressing {@code long -> long} hash map with linear probing and backward-shift deletion,
+ * so entries cost two array slots instead of a node, a boxed key and a boxed value. Not thread
+ * safe. {@link Long#MIN_VALUE} marks empty slots and cannot be used as a key; lookups of it
+ * simply miss.
+ */
+public final class LongLongHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap(long missingValue) {
+        this(missingValue, 16);
+    }
+
+    public LongLongHashMap(long missingValue, int expectedSize) {
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /** @return the value, or the missing value given at construction */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return missingValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return missingValue;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return false;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /** @return the previous value, or the missing value */
+    public long put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        int slot = slot(key);
+        for (long current = keys[slot]; current != EMPTY; current = keys[slot]) {
+            if (current == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return missingValue;
+    }
+
+    /** @return the removed value, or the missing value */
+    public long remove(long key) {
+        if (key == EMPTY) {
+            return missingValue;
+        }
+        int slot = slot(key);
+        for (long current = keys[slot]; current != key; current = keys[slot]) {
+            if (current == EMPTY) {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long previous = values[slot];
+        // Shift back later entries of the probe run that may live in the freed slot.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return previous;
+    }
+
+    /** Replaces every value with {@code function(key, value)}. */
+    public void replaceValues(LongBinaryOperator function) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                values[slot] = function.applyAsLong(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("LongLongHashMap is full");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != EMPTY) {
+                int target = slot(key);
+                while (keys[target] != EMPTY) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long wanted = Math.max(16, (long) Math.ceil(expectedSize / 0.75));
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
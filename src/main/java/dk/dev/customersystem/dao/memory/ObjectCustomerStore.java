@@ -0,0 +1,45 @@
+package dk.dev.customersystem.dao.memory;
+
+import dk.dev.customersystem.model.Customer;
+
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps customers as objects in a {@link ConcurrentLongObjectMap}. Reads are cheapest and
+ * allocation free, at the cost of an object graph per customer.
+ */
+public class ObjectCustomerStore implements CustomerStore {
+
+    private final ConcurrentLongObjectMap<Customer> customers = new ConcurrentLongObjectMap<>();
+
+    @Override
+    public Customer get(long id) {
+        return customers.get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return customers.containsKey(id);
+    }
+
+    @Override
+    public Customer compute(long id, UnaryOperator<Customer> remapping) {
+        return customers.compute(id, remapping);
+    }
+
+    @Override
+    public Customer computeIfPresent(long id, UnaryOperator<Customer> remapping) {
+        return customers.computeIfPresent(id, remapping);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Customer> action) {
+        customers.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return customers.size();
+    }
+}
@@ -0,0 +1,8 @@
+package dk.dev.customersystem.dao.memory;
+
+public enum StorageMode {
+    /** {@link ObjectCustomerStore} */
+    OBJECTS,
+    /** {@link BinaryCustomerStore} */
+    BINARY
+}
@@ -0,0 +1,206 @@
+package dk.dev.customersystem.dao.metrics;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Times every call to another {@link CustomerDao} as {@code customer.dao}, tagged with the
+ * implementation, the method and the outcome: {@code success}, {@code not_found} when the
+ * call found or changed nothing, or {@code error}. Timers are resolved once up front, so a
+ * call costs two clock reads and one timer update.
+ */
+public class MeteredCustomerDao extends ForwardingCustomerDao {
+
+    private final Operation save;
+    private final Operation insertIfAbsent;
+    private final Operation saveAll;
+    private final Operation update;
+    private final Operation deleteById;
+    private final Operation removeById;
+    private final Operation findById;
+    private final Operation findAllById;
+    private final Operation findAll;
+    private final Operation findPage;
+    private final Operation forEachCustomer;
+    private final Operation findViewPage;
+    private final Operation forEachView;
+    private final Operation findByNameIgnoreCase;
+    private final Operation existsById;
+    private final Operation existsByNameIgnoreCaseAndFamilyIgnoreCase;
+    private final Operation count;
+    private final Operation search;
+
+    public MeteredCustomerDao(CustomerDao delegate, MeterRegistry registry, String implementation) {
+        super(delegate);
+        save = new Operation(registry, implementation, "save");
+        insertIfAbsent = new Operation(registry, implementation, "insertIfAbsent");
+        saveAll = new Operation(registry, implementation, "saveAll");
+        update = new Operation(registry, implementation, "update");
+        deleteById = new Operation(registry, implementation, "deleteById");
+        removeById = new Operation(registry, implementation, "removeById");
+        findById = new Operation(registry, implementation, "findById");
+        findAllById = new Operation(registry, implementation, "findAllById");
+        findAll = new Operation(registry, implementation, "findAll");
+        findPage = new Operation(registry, implementation, "findPage");
+        forEachCustomer = new Operation(registry, implementation, "forEachCustomer");
+        findViewPage = new Operation(registry, implementation, "findViewPage");
+        forEachView = new Operation(registry, implementation, "forEachView");
+        findByNameIgnoreCase = new Operation(registry, implementation, "findByNameIgnoreCase");
+        existsById = new Operation(registry, implementation, "existsById");
+        existsByNameIgnoreCaseAndFamilyIgnoreCase = new Operation(registry, implementation,
+                "existsByNameIgnoreCaseAndFamilyIgnoreCase");
+        count = new Operation(registry, implementation, "count");
+        search = new Operation(registry, implementation, "search");
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return save.record(() -> super.save(customer));
+    }
+
+    @Override
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        return insertIfAbsent.record(() -> super.insertIfAbsent(customer), Optional::isPresent);
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        return saveAll.record(() -> super.saveAll(customers));
+    }
+
+    @Override
+    public int update(Customer customer) {
+        return update.record(() -> super.update(customer), rows -> rows > 0);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        deleteById.record(() -> {
+            super.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        return removeById.record(() -> super.removeById(id), Optional::isPresent);
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return findById.record(() -> super.findById(id), Optional::isPresent);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return findAllById.record(() -> super.findAllById(ids), customers -> !customers.isEmpty());
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return findAll.record(super::findAll);
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return findPage.record(() -> super.findPage(afterId, limit));
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        forEachCustomer.record(() -> {
+            super.forEachCustomer(action);
+            return null;
+        });
+    }
+
+    @Override
+    public List<CustomerView> findViewPage(Long afterId, int limit) {
+        return findViewPage.record(() -> super.findViewPage(afterId, limit));
+    }
+
+    @Override
+    public void forEachView(Consumer<? super CustomerView> action) {
+        forEachView.record(() -> {
+            super.forEachView(action);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Customer> findByNameIgnoreCase(String name) {
+        return findByNameIgnoreCase.record(() -> super.findByNameIgnoreCase(name), customers -> !customers.isEmpty());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return existsById.record(() -> super.existsById(id), Boolean::booleanValue);
+    }
+
+    @Override
+    public boolean existsByNameIgnoreCaseAndFamilyIgnoreCase(String name, String family) {
+        return existsByNameIgnoreCaseAndFamilyIgnoreCase.record(
+                () -> super.existsByNameIgnoreCaseAndFamilyIgnoreCase(name, family), Boolean::booleanValue);
+    }
+
+    @Override
+    public long count() {
+        return count.record(super::count);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit, boolean fuzzy) {
+        return search.record(() -> super.search(query, limit, fuzzy), customers -> !customers.isEmpty());
+    }
+
+    private static final class Operation {
+
+        private final Timer success;
+        private final Timer notFound;
+        private final Timer error;
+
+        Operation(MeterRegistry registry, String implementation, String method) {
+            success = timer(registry, implementation, method, "success");
+            notFound = timer(registry, implementation, method, "not_found");
+            error = timer(registry, implementation, method, "error");
+        }
+
+        <T> T record(Supplier<T> call) {
+            return record(call, result -> true);
+        }
+
+        <T> T record(Supplier<T> call, Predicate<? super T> found) {
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = call.get();
+            } catch (RuntimeException | Error e) {
+                error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            (found.test(result) ? success : notFound).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        }
+
+        private static Timer timer(MeterRegistry registry, String implementation, String method, String outcome) {
+            return Timer.builder("customer.dao")
+                    .description("Calls to the customer DAO")
+                    .tag("implementation", implementation)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dk.dev.customersystem.dao.search;
+
+import dk.dev.customersystem.dao.memory.ConcurrentLongObjectMap;
+import dk.dev.customersystem.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process index of the {@link SearchTerms} of every customer: a sorted map from term to the
+ * ids having it, so a prefix query is a range scan over the matching terms. Results come in term
+ * order and the scan stops as soon as the limit is reached, so type-ahead queries touch a few
+ * entries however many customers there are.
+ * <p>
+ * A multi-word query scans the term range of its most selective word and checks the other
+ * words against the terms kept per id. Fuzzy matching only adds results when prefixes found
+ * fewer than the limit, and only looks at terms starting with the same letter.
+ */
+public class CustomerSearchIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private volatile ConcurrentLongObjectMap<String[]> termsById = new ConcurrentLongObjectMap<>();
+
+    public void put(Customer customer) {
+        putAll(List.of(customer));
+    }
+
+    public void putAll(Collection<? extends Customer> customers) {
+        lock.writeLock().lock();
+        try {
+            customers.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String[] terms = termsById.get(id);
+            if (terms != null) {
+                unindex(id, terms);
+                termsById.computeIfPresent(id, previous -> null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replaces the whole index with the customers {@code source} passes to its consumer. */
+    public void rebuild(Consumer<Consumer<? super Customer>> source) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsById = new ConcurrentLongObjectMap<>();
+            source.accept(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return termsById.size();
+    }
+
+    /** @return the ids of at most {@code limit} matching customers, best matches first */
+    public long[] search(String query, int limit, boolean fuzzy) {
+        List<String> tokens = SearchTerms.queryTokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            String driver = mostSelective(tokens);
+            List<String> others = new ArrayList<>(tokens);
+            others.remove(driver);
+            long[] result = new long[limit];
+            int[] found = {0};
+            LongPredicate collect = id -> {
+                if ((others.isEmpty() || SearchTerms.matches(others, termsById.get(id), fuzzy))
+                        && !contains(result, found[0], id)) {
+                    result[found[0]++] = id;
+                }
+                return found[0] < limit;
+            };
+            if (scanPrefix(driver, collect) && fuzzy) {
+                scanFuzzy(driver, collect);
+            }
+            return Arrays.copyOf(result, found[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock.
+    private void index(Customer customer) {
+        if (customer.getId() == null) {
+            return;
+        }
+        long id = customer.getId();
+        String[] terms = SearchTerms.termsOf(customer);
+        String[] previous = termsById.get(id);
+        if (Arrays.equals(previous, terms)) {
+            return;
+        }
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        for (int i = 0; i < terms.length; i++) {
+            Postings ids = postings.computeIfAbsent(terms[i], Postings::new);
+            ids.add(id);
+            // Share the key instance, so each distinct term is held once.
+            terms[i] = ids.term;
+        }
+        termsById.compute(id, ignored -> terms);
+    }
+
+    private void unindex(long id, String[] terms) {
+        for (String term : terms) {
+            Postings ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // Counting stops once a word is known to be less selective than the best one so far.
+    private String mostSelective(List<String> tokens) {
+        String best = tokens.get(0);
+        long bestCount = Long.MAX_VALUE;
+        for (String token : tokens) {
+            long count = 0;
+            for (Postings ids : prefixRange(token).values()) {
+                count += ids.size;
+                if (count >= bestCount) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                best = token;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /** @return {@code false} once {@code visitor} asked to stop */
+    private boolean scanPrefix(String token, LongPredicate visitor) {
+        for (Postings ids : prefixRange(token).values()) {
+            if (!ids.forEach(visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void scanFuzzy(String token, LongPredicate visitor) {
+        for (Map.Entry<String, Postings> entry : prefixRange(token.substring(0, 1)).entrySet()) {
+            String term = entry.getKey();
+            if (!term.startsWith(token) && SearchTerms.fuzzyMatches(token, term)
+                    && !entry.getValue().forEach(visitor)) {
+                return;
+            }
+        }
+    }
+
+    private NavigableMap<String, Postings> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean contains(long[] ids, int length, long id) {
+        for (int i = 0; i < length; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ids having one term, in insertion order; removal swaps in the last id. */
+    private static final class Postings {
+
+        private final String term;
+        private long[] ids = new long[2];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean forEach(LongPredicate visitor) {
+            for (int i = 0; i < size; i++) {
+                if (!visitor.test(ids[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dk.dev.customersystem.dao.search;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.model.Customer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers {@link #search} from a {@link CustomerSearchIndex} kept up to date by every write
+ * going through this DAO. The index is loaded from the delegate by {@link #load()}, which the
+ * application calls once the schema is initialized; until then, searches fall back to the delegate.
+ * Matches are loaded in one call through the delegate, which drops customers deleted in the meantime.
+ */
+@Slf4j
+public class SearchIndexedCustomerDao extends ForwardingCustomerDao {
+
+    private final CustomerSearchIndex index;
+    private volatile boolean loaded;
+
+    public SearchIndexedCustomerDao(CustomerDao delegate, CustomerSearchIndex index) {
+        super(delegate);
+        this.index = index;
+    }
+
+    /** Fills the index from the delegate; later calls do nothing. */
+    public void load() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        index.rebuild(this::forEachCustomer);
+        loaded = true;
+        log.info("Indexed {} customers for search in {} ms", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        Customer saved = super.save(customer);
+        index.put(saved);
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        Optional<Customer> inserted = super.insertIfAbsent(customer);
+        inserted.ifPresent(index::put);
+        return inserted;
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        List<Customer> saved;
+        try {
+            saved = super.saveAll(customers);
+        } catch (RuntimeException e) {
+            // The delegate may have stored part of the batch before failing: index what is there.
+            List<Long> ids = customers.stream().map(Customer::getId).filter(Objects::nonNull).toList();
+            try {
+                index.putAll(findAllById(ids));
+            } catch (RuntimeException indexing) {
+                e.addSuppressed(indexing);
+            }
+            throw e;
+        }
+        index.putAll(saved);
+        return saved;
+    }
+
+    @Override
+    public int update(Customer customer) {
+        int updated = super.update(customer);
+        if (updated > 0) {
+            index.put(customer);
+        }
+        return updated;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        super.deleteById(id);
+        index.remove(id);
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        Optional<Long> removed = super.removeById(id);
+        if (removed.isPresent()) {
+            index.remove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit, boolean fuzzy) {
+        if (!loaded) {
+            return super.search(query, limit, fuzzy);
+        }
+        long[] ids = index.search(query, limit, fuzzy);
+        Map<Long, Customer> found = new HashMap<>();
+        for (Customer customer : findAllById(Arrays.stream(ids).boxed().toList())) {
+            found.put(customer.getId(), customer);
+        }
+        List<Customer> customers = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Customer customer = found.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    public CustomerSearchIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,141 @@
+package dk.dev.customersystem.dao.search;
+
+import dk.dev.customersystem.model.Customer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * How customers and queries are broken into search terms. Names and families are split into
+ * words, lower-cased and stripped of accents; phone numbers are reduced to their digits. A query
+ * made only of phone number characters is one phone token, otherwise each word is a token.
+ */
+public final class SearchTerms {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("[+\\d\\s().-]*\\d[+\\d\\s().-]*");
+
+    private SearchTerms() {
+    }
+
+    public static List<String> queryTokens(String query) {
+        if (query == null) {
+            return List.of();
+        }
+        if (PHONE_QUERY.matcher(query).matches()) {
+            return List.of(digits(query));
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        addWords(query, tokens);
+        return new ArrayList<>(tokens);
+    }
+
+    /** The distinct terms a customer is found by. */
+    public static String[] termsOf(Customer customer) {
+        Set<String> terms = new LinkedHashSet<>();
+        addWords(customer.getName(), terms);
+        addWords(customer.getFamily(), terms);
+        if (customer.getPhoneNumber() != null) {
+            String digits = digits(customer.getPhoneNumber());
+            if (!digits.isEmpty()) {
+                terms.add(digits);
+            }
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    /** Whether every token matches one of the customer's terms. */
+    public static boolean matches(List<String> tokens, Customer customer, boolean fuzzy) {
+        return matches(tokens, termsOf(customer), fuzzy);
+    }
+
+    static boolean matches(List<String> tokens, String[] terms, boolean fuzzy) {
+        for (String token : tokens) {
+            boolean found = false;
+            for (int i = 0; i < terms.length && !found; i++) {
+                found = terms[i].startsWith(token) || fuzzy && fuzzyMatches(token, terms[i]);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether some prefix of {@code term} is within the allowed edit distance of {@code token},
+     * counting a swap of adjacent letters as one edit. The first letter must match, which keeps
+     * the candidate terms to one slice of the index.
+     */
+    static boolean fuzzyMatches(String token, String term) {
+        int maxEdits = maxEdits(token);
+        return maxEdits > 0 && !term.isEmpty() && term.charAt(0) == token.charAt(0)
+                && prefixDistance(token, term, maxEdits) <= maxEdits;
+    }
+
+    private static int maxEdits(String token) {
+        if (Character.isDigit(token.charAt(0))) {
+            return 0;
+        }
+        return token.length() >= 6 ? 2 : token.length() >= 3 ? 1 : 0;
+    }
+
+    private static int prefixDistance(String token, String term, int maxEdits) {
+        int n = token.length();
+        int m = Math.min(term.length(), n + maxEdits);
+        int[][] distance = new int[n + 1][m + 1];
+        for (int i = 0; i <= n; i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= m; j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                int cost = token.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+                int best = Math.min(Math.min(distance[i - 1][j] + 1, distance[i][j - 1] + 1),
+                        distance[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && token.charAt(i - 1) == term.charAt(j - 2)
+                        && token.charAt(i - 2) == term.charAt(j - 1)) {
+                    best = Math.min(best, distance[i - 2][j - 2] + 1);
+                }
+                distance[i][j] = best;
+            }
+        }
+        int best = maxEdits + 1;
+        for (int j = Math.max(0, n - maxEdits); j <= m; j++) {
+            best = Math.min(best, distance[n][j]);
+        }
+        return best;
+    }
+
+    private static void addWords(String text, Set<String> target) {
+        if (text == null) {
+            return;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String word : WORD_SEPARATOR.split(folded)) {
+            if (!word.isEmpty()) {
+                target.add(word);
+            }
+        }
+    }
+
+    private static String digits(String text) {
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
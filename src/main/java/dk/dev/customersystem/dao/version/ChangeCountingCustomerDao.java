@@ -0,0 +1,81 @@
+package dk.dev.customersystem.dao.version;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.model.Customer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the successful writes that go through it, so that whether any customer changed is known
+ * without a query: {@link #collectionVersion()} differs after every write, and from the versions
+ * of earlier runs. The count is taken after a write completes, so a version read before loading
+ * customers never stands for data older than what was loaded. Like the cache, it only sees writes
+ * made through this decorator.
+ */
+public class ChangeCountingCustomerDao extends ForwardingCustomerDao {
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong changes = new AtomicLong();
+
+    public ChangeCountingCustomerDao(CustomerDao delegate) {
+        super(delegate);
+    }
+
+    public String collectionVersion() {
+        return epoch + "-" + changes.get();
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        Customer saved = super.save(customer);
+        changes.incrementAndGet();
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> insertIfAbsent(Customer customer) {
+        Optional<Customer> inserted = super.insertIfAbsent(customer);
+        if (inserted.isPresent()) {
+            changes.incrementAndGet();
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<Customer> saveAll(Collection<Customer> customers) {
+        try {
+            return super.saveAll(customers);
+        } finally {
+            // A failed batch may still have stored some customers.
+            changes.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int update(Customer customer) {
+        int updated = super.update(customer);
+        if (updated > 0) {
+            changes.incrementAndGet();
+        }
+        return updated;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        super.deleteById(id);
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public Optional<Long> removeById(Long id) {
+        Optional<Long> removed = super.removeById(id);
+        if (removed.isPresent()) {
+            changes.incrementAndGet();
+        }
+        return removed;
+    }
+}
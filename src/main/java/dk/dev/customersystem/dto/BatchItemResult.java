@@ -0,0 +1,27 @@
+package dk.dev.customersystem.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Outcome of one item of a batch request")
+public class BatchItemResult {
+
+    @Schema(description = "Position of the item in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Whether the item was stored", example = "true")
+    private boolean success;
+
+    @Schema(description = "The stored customer, present when success is true")
+    private CustomerDto customer;
+
+    @Schema(description = "Reason of the failure, present when success is false")
+    private String error;
+}
@@ -0,0 +1,27 @@
+package dk.dev.customersystem.dto;
+
+import dk.dev.customersystem.changes.CustomerChange;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Customer changes following a cursor, in the order they were published")
+public class CustomerChangePage {
+
+    @Schema(description = "Changes of this page")
+    private List<CustomerChange> items;
+
+    @Schema(description = "Cursor to pass as 'since' to get the following changes")
+    private long nextCursor;
+
+    @Schema(description = "Set when changes after 'since' are no longer kept, so the client must re-read all customers")
+    private boolean truncated;
+}
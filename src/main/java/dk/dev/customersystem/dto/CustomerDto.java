@@ -1,5 +1,6 @@
 package dk.dev.customersystem.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import dk.dev.customersystem.enums.CustomerType;
@@ -45,4 +46,9 @@ public abstract class CustomerDto {
     @Schema(description = "Phone number of the customer", example = "1234567890")
     private String phoneNumber;
     private CustomerType type;
+
+    // Sent as the ETag header rather than in the body.
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package dk.dev.customersystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerLookupResult {
+    /** Found customers, in the order their ids were requested. */
+    private List<CustomerDto> customers;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,24 @@
+package dk.dev.customersystem.dto;
+
+import dk.dev.customersystem.model.CustomerView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "One page of customers ordered by id")
+public class CustomerPage {
+
+    @Schema(description = "Customers of this page")
+    private List<CustomerView> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "100")
+    private Long nextCursor;
+}
@@ -0,0 +1,23 @@
+package dk.dev.customersystem.dto;
+
+import dk.dev.customersystem.importer.ImportError;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+    private long lines;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private long linesPerSecond;
+    /** The first rejected lines, up to customer.import.max-reported-errors. */
+    private List<ImportError> errors;
+}
@@ -0,0 +1,19 @@
+package dk.dev.customersystem.dto;
+
+import dk.dev.customersystem.jdbc.SqlStatistics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlStatsDto {
+    private List<SqlStatistics.StatementSnapshot> statements;
+    private List<SqlStatistics.SuspectSnapshot> nPlusOneSuspects;
+    private long droppedSlowQueryLogs;
+}
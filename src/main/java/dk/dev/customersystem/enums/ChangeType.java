@@ -0,0 +1,7 @@
+package dk.dev.customersystem.enums;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,7 @@
+package dk.dev.customersystem.exception;
+
+public class CustomerVersionConflictException extends RuntimeException {
+    public CustomerVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package dk.dev.customersystem.exception;
+
+public class ImportInProgressException extends RuntimeException {
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+}
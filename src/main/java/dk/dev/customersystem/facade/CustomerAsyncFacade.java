@@ -0,0 +1,68 @@
+package dk.dev.customersystem.facade;
+
+import dk.dev.customersystem.config.CustomerAsyncProperties;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.CustomerPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the calls of {@link CustomerFacade} on its own bounded executor, so the request thread
+ * is released while the DAO works and no more than {@code customer.async.threads} calls hit the
+ * DAO at once. When the queue is full as well, the call fails at once with a
+ * {@link java.util.concurrent.RejectedExecutionException} instead of piling up.
+ */
+@Component
+public class CustomerAsyncFacade {
+
+    private final CustomerFacade facade;
+    private final ThreadPoolExecutor executor;
+
+    // Not a bean: an Executor bean would make Spring Boot back off from its own task executor.
+    @Autowired
+    public CustomerAsyncFacade(CustomerFacade facade, CustomerAsyncProperties properties,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.facade = facade;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("customer-async-", 0).factory());
+        meterRegistry.ifAvailable(registry ->
+                new ExecutorServiceMetrics(executor, "customer.async", Tags.empty()).bindTo(registry));
+    }
+
+    public CompletableFuture<CustomerDto> getCustomerByIdAsync(Long id) {
+        return CompletableFuture.supplyAsync(() -> facade.getCustomerById(id), executor);
+    }
+
+    public CompletableFuture<List<CustomerDto>> getAllCustomersAsync() {
+        return CompletableFuture.supplyAsync(facade::getAllCustomers, executor);
+    }
+
+    public CompletableFuture<CustomerPage> getCustomerPageAsync(Long after, int limit) {
+        return CompletableFuture.supplyAsync(() -> facade.getCustomerPage(after, limit), executor);
+    }
+
+    public CompletableFuture<List<CustomerDto>> getCustomersByNameAsync(String name) {
+        return CompletableFuture.supplyAsync(() -> facade.getCustomersByName(name), executor);
+    }
+
+    public CompletableFuture<List<CustomerDto>> searchCustomersAsync(String query, int limit, boolean fuzzy) {
+        return CompletableFuture.supplyAsync(() -> facade.searchCustomers(query, limit, fuzzy), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,15 +1,24 @@
 package dk.dev.customersystem.facade;
 
+import dk.dev.customersystem.dto.BatchItemResult;
 import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.CustomerLookupResult;
+import dk.dev.customersystem.dto.CustomerPage;
 import dk.dev.customersystem.exception.CustomerNotFoundException;
 import dk.dev.customersystem.mapper.CustomerMapper;
 import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
 import dk.dev.customersystem.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 public class CustomerFacade {
@@ -27,8 +36,29 @@ public class CustomerFacade {
         return customerMapper.toDto(entity);
     }
 
+    public List<BatchItemResult> addCustomers(List<CustomerDto> customerDtos) {
+        List<Customer> entities = customerDtos.stream()
+                .map(customerMapper::toEntity)
+                .toList();
+        Map<Integer, String> failures = customerService.addCustomers(entities);
+        List<BatchItemResult> results = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            String error = failures.get(i);
+            results.add(error == null
+                    ? new BatchItemResult(i, true, customerMapper.toDto(entities.get(i)), null)
+                    : new BatchItemResult(i, false, null, error));
+        }
+        return results;
+    }
+
     public CustomerDto updateCustomer(Long id, CustomerDto customerDto) {
+        return updateCustomer(id, customerDto, null);
+    }
+
+    /** With an {@code expectedVersion}, only updates the customer while it is still at that version. */
+    public CustomerDto updateCustomer(Long id, CustomerDto customerDto, Long expectedVersion) {
         Customer entity = customerMapper.toEntity(customerDto);
+        entity.setVersion(expectedVersion);
         entity = customerService.updateCustomer(id, entity);
         return entity != null ? customerMapper.toDto(entity) : null;
     }
@@ -44,6 +74,29 @@ public class CustomerFacade {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id " + id));
     }
 
+    /** Resolves all ids with one DAO call; duplicates and nulls are dropped, the request order is kept. */
+    public CustomerLookupResult lookupCustomers(List<Long> ids) {
+        List<Long> requested = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Customer> found = new HashMap<>();
+        for (Customer customer : customerService.getCustomersByIds(requested)) {
+            found.put(customer.getId(), customer);
+        }
+        List<CustomerDto> customers = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Customer customer = found.get(id);
+            if (customer != null) {
+                customers.add(customerMapper.toDto(customer));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new CustomerLookupResult(customers, missingIds);
+    }
+
     public List<CustomerDto> getAllCustomers() {
         return customerService.getAllCustomers()
                 .stream()
@@ -51,10 +104,34 @@ public class CustomerFacade {
                 .toList();
     }
 
+    public Optional<String> getCollectionVersion() {
+        return customerService.getCollectionVersion();
+    }
+
+    // Pages and exports only render customers, so they use projections instead of DTO copies.
+    public CustomerPage getCustomerPage(Long after, int limit) {
+        List<CustomerView> customers = customerService.getCustomerViewPage(after, limit + 1);
+        boolean hasMore = customers.size() > limit;
+        List<CustomerView> items = hasMore ? customers.subList(0, limit) : customers;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).id() : null;
+        return new CustomerPage(items, nextCursor);
+    }
+
+    public void forEachCustomer(Consumer<? super CustomerView> action) {
+        customerService.forEachCustomerView(action);
+    }
+
     public List<CustomerDto> getCustomersByName(String name) {
         return customerService.findByName(name)
                 .stream()
                 .map(customerMapper::toDto)
                 .toList();
     }
+
+    public List<CustomerDto> searchCustomers(String query, int limit, boolean fuzzy) {
+        return customerService.searchCustomers(query, limit, fuzzy)
+                .stream()
+                .map(customerMapper::toDto)
+                .toList();
+    }
 }
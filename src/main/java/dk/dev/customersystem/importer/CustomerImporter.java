@@ -0,0 +1,300 @@
+package dk.dev.customersystem.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import dk.dev.customersystem.config.CustomerImportProperties;
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.memory.LongLongHashMap;
+import dk.dev.customersystem.dto.ImportReport;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
+import dk.dev.customersystem.exception.ImportInProgressException;
+import dk.dev.customersystem.mapper.CustomerMapper;
+import dk.dev.customersystem.model.Customer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Streams customers from a CSV or NDJSON file into the {@link CustomerDao}. The calling thread
+ * reads the file in chunks of lines, a pool of workers parses and validates the chunks in
+ * parallel, and the calling thread stores them in file order, one batched write per chunk.
+ * <p>
+ * At most two chunks per worker are in flight, so reading waits for storing and the lines in
+ * memory stay bounded however large the file is. Duplicated full names within the file are
+ * caught by a set of 64-bit full-name hashes, which does grow with the file: about 16 bytes per
+ * distinct customer. A hash seen before is confirmed against the chunk and the DAO before a line
+ * is rejected, so a collision never drops a distinct customer. The DAO rejects duplicates of
+ * stored customers. One import runs at a time. Every stored customer is published to the
+ * {@link CustomerChangeFeed}.
+ */
+@Slf4j
+@Component
+public class CustomerImporter {
+
+    private final CustomerDao customerDao;
+    private final CustomerMapper customerMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CustomerImportProperties properties;
+    private final CustomerChangeFeed changes;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Autowired
+    public CustomerImporter(CustomerDao customerDao, CustomerMapper customerMapper, Validator validator,
+                            ObjectMapper objectMapper, CustomerImportProperties properties,
+                            CustomerChangeFeed changes) {
+        this.customerDao = customerDao;
+        this.customerMapper = customerMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.changes = changes;
+    }
+
+    /**
+     * Imports every line of {@code input}, which is read to its end but not closed.
+     *
+     * @throws ImportInProgressException when another import is running
+     */
+    public ImportReport importCustomers(InputStream input, ImportFormat format, ImportListener listener) throws IOException {
+        if (!running.tryLock()) {
+            throw new ImportInProgressException("Another import is running, please retry when it has finished");
+        }
+        try {
+            return new Run(listener).execute(new BufferedReader(
+                    new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16), format);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private record ParsedChunk(List<Customer> customers, long[] lines, List<ImportError> errors, int lineCount) {
+    }
+
+    private final class Run {
+
+        private final ImportListener listener;
+        private final long start = System.nanoTime();
+        private final LongLongHashMap fullNames = new LongLongHashMap(0);
+        private final List<ImportError> reportedErrors = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long rejected;
+        private long nextProgress = properties.getProgressInterval();
+
+        Run(ImportListener listener) {
+            this.listener = listener;
+        }
+
+        ImportReport execute(BufferedReader reader, ImportFormat format) throws IOException {
+            long lineNumber = 0;
+            CustomerLineParser parser;
+            if (format == ImportFormat.CSV) {
+                String header = reader.readLine();
+                if (header == null) {
+                    return report();
+                }
+                lineNumber++;
+                try {
+                    parser = CustomerLineParser.csv(header);
+                } catch (IllegalArgumentException e) {
+                    reject(new ImportError(lineNumber, e.getMessage()));
+                    return report();
+                }
+            } else {
+                parser = CustomerLineParser.ndjson(objectMapper);
+            }
+            int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+            int chunkSize = properties.getChunkSize();
+            Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+            ExecutorService workers = Executors.newFixedThreadPool(threads,
+                    Thread.ofPlatform().name("customer-import-", 0).daemon().factory());
+            try {
+                List<String> chunk = new ArrayList<>(chunkSize);
+                long firstLine = lineNumber + 1;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lineNumber++;
+                    chunk.add(line);
+                    if (chunk.size() == chunkSize) {
+                        pending.add(submit(workers, parser, chunk, firstLine));
+                        chunk = new ArrayList<>(chunkSize);
+                        firstLine = lineNumber + 1;
+                        if (pending.size() >= threads * 2) {
+                            store(await(pending.poll()));
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.add(submit(workers, parser, chunk, firstLine));
+                }
+                while (!pending.isEmpty()) {
+                    store(await(pending.poll()));
+                }
+            } finally {
+                pending.forEach(future -> future.cancel(true));
+                workers.shutdownNow();
+            }
+            ImportReport report = report();
+            listener.onProgress(progress());
+            log.info("Imported {} of {} customers in {} ms, {} rejected", report.getImported(), report.getLines(),
+                    report.getElapsedMillis(), report.getRejected());
+            return report;
+        }
+
+        private Future<ParsedChunk> submit(ExecutorService workers, CustomerLineParser parser, List<String> chunk, long firstLine) {
+            return workers.submit(() -> parse(parser, chunk, firstLine));
+        }
+
+        // Runs on a worker: nothing here touches the state of the run.
+        private ParsedChunk parse(CustomerLineParser parser, List<String> chunk, long firstLine) {
+            List<Customer> customers = new ArrayList<>(chunk.size());
+            long[] lineNumbers = new long[chunk.size()];
+            List<ImportError> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                String line = chunk.get(i);
+                long lineNumber = firstLine + i;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Customer customer;
+                try {
+                    customer = customerMapper.toEntity(parser.parse(line));
+                } catch (IOException | RuntimeException e) {
+                    errors.add(new ImportError(lineNumber, "Unreadable customer: " + e.getMessage()));
+                    continue;
+                }
+                customer.setId(null);
+                Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+                if (!violations.isEmpty()) {
+                    errors.add(new ImportError(lineNumber, "Validation error: " + violations.stream()
+                            .map(violation -> "Property: " + violation.getPropertyPath() + " ,Message :" + violation.getMessage())
+                            .collect(Collectors.joining(", "))));
+                    continue;
+                }
+                lineNumbers[customers.size()] = lineNumber;
+                customers.add(customer);
+            }
+            int lineCount = (int) chunk.stream().filter(line -> !line.isBlank()).count();
+            return new ParsedChunk(customers, lineNumbers, errors, lineCount);
+        }
+
+        private ParsedChunk await(Future<ParsedChunk> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Parsing an import chunk failed", e.getCause());
+            }
+        }
+
+        private void store(ParsedChunk chunk) {
+            lines += chunk.lineCount();
+            chunk.errors().forEach(this::reject);
+            List<Customer> batch = new ArrayList<>(chunk.customers().size());
+            long[] batchLines = new long[chunk.customers().size()];
+            Set<String> batchFullNames = new HashSet<>();
+            for (int i = 0; i < chunk.customers().size(); i++) {
+                Customer customer = chunk.customers().get(i);
+                String fullName = fullNameOf(customer);
+                boolean seen = fullNames.put(fullNameHash(fullName), 1) != 0;
+                // A known hash is an earlier line of the file or, rarely, a collision: confirm it.
+                if (seen && (batchFullNames.contains(fullName)
+                        || customerDao.existsByNameIgnoreCaseAndFamilyIgnoreCase(customer.getName(), customer.getFamily()))) {
+                    reject(new ImportError(chunk.lines()[i], duplicatedMessage(customer)));
+                } else {
+                    batchFullNames.add(fullName);
+                    batchLines[batch.size()] = chunk.lines()[i];
+                    batch.add(customer);
+                }
+            }
+            try {
+                customerDao.saveAll(batch).forEach(changes::created);
+                imported += batch.size();
+            } catch (DuplicatedCustomerException e) {
+                // A stored customer has one of the full names: settle the chunk item by item.
+                for (int i = 0; i < batch.size(); i++) {
+                    Customer customer = batch.get(i);
+                    if (customer.getId() != null && customerDao.existsById(customer.getId())) {
+                        imported++;
+                        changes.created(customer);
+                        continue;
+                    }
+                    customer.setId(null);
+                    Optional<Customer> inserted = customerDao.insertIfAbsent(customer);
+                    if (inserted.isPresent()) {
+                        imported++;
+                        changes.created(inserted.get());
+                    } else {
+                        reject(new ImportError(batchLines[i], duplicatedMessage(customer)));
+                    }
+                }
+            }
+            if (lines >= nextProgress) {
+                nextProgress = lines + properties.getProgressInterval();
+                listener.onProgress(progress());
+            }
+        }
+
+        private void reject(ImportError error) {
+            rejected++;
+            if (reportedErrors.size() < properties.getMaxReportedErrors()) {
+                reportedErrors.add(error);
+            }
+            listener.onError(error);
+        }
+
+        private ImportProgress progress() {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new ImportProgress(lines, imported, rejected, elapsedMillis,
+                    elapsedMillis == 0 ? 0 : lines * 1000 / elapsedMillis);
+        }
+
+        private ImportReport report() {
+            ImportProgress progress = progress();
+            return new ImportReport(lines, imported, rejected, progress.elapsedMillis(), progress.linesPerSecond(),
+                    List.copyOf(reportedErrors));
+        }
+    }
+
+    private static String duplicatedMessage(Customer customer) {
+        return "Customer with full name " + customer.getName() + " " + customer.getFamily() + " already exists";
+    }
+
+    private static String fullNameOf(Customer customer) {
+        return customer.getName().toLowerCase(Locale.ROOT) + '\n' + customer.getFamily().toLowerCase(Locale.ROOT);
+    }
+
+    // FNV-1a over the lower-cased full name; Long.MIN_VALUE is reserved by LongLongHashMap.
+    private static long fullNameHash(String fullName) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < fullName.length(); i++) {
+            hash = (hash ^ fullName.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == Long.MIN_VALUE ? Long.MAX_VALUE : hash;
+    }
+}
@@ -0,0 +1,100 @@
+package dk.dev.customersystem.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.enums.CustomerType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Turns one line of an import file into a customer. Implementations are thread safe. */
+interface CustomerLineParser {
+
+    CustomerDto parse(String line) throws IOException;
+
+    static CustomerLineParser ndjson(ObjectMapper objectMapper) {
+        ObjectReader reader = objectMapper.readerFor(CustomerDto.class);
+        return reader::readValue;
+    }
+
+    /**
+     * Columns are matched by their header name, in any order: {@code type}, {@code name},
+     * {@code family}, {@code phoneNumber}, {@code nationality} and {@code industry}. Fields may
+     * be quoted, with {@code ""} for a quote, but may not span lines.
+     */
+    static CustomerLineParser csv(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("type", "name", "family")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header lacks the column " + required);
+            }
+        }
+        return line -> {
+            List<String> fields = split(line);
+            CustomerType type = CustomerType.valueOf(field(fields, columns, "type").toUpperCase(Locale.ROOT));
+            CustomerDto customer;
+            if (type == CustomerType.REAL) {
+                RealCustomerDto real = new RealCustomerDto();
+                real.setNationality(field(fields, columns, "nationality"));
+                customer = real;
+            } else {
+                LegalCustomerDto legal = new LegalCustomerDto();
+                legal.setIndustry(field(fields, columns, "industry"));
+                customer = legal;
+            }
+            customer.setName(field(fields, columns, "name"));
+            customer.setFamily(field(fields, columns, "family"));
+            customer.setPhoneNumber(field(fields, columns, "phonenumber"));
+            customer.setType(type);
+            return customer;
+        };
+    }
+
+    // Empty fields and absent columns are null.
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
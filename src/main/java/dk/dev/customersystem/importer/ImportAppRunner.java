@@ -0,0 +1,67 @@
+package dk.dev.customersystem.importer;
+
+import dk.dev.customersystem.dto.ImportReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports the files named on the command line, e.g.
+ * {@code --spring.profiles.active=import,jdbc customers.csv}. Rejected lines of each file are
+ * written to a {@code .errors} file next to it.
+ */
+@Slf4j
+@Component
+@Profile("import")
+public class ImportAppRunner implements CommandLineRunner {
+    private final CustomerImporter importer;
+    @Autowired
+    public ImportAppRunner(CustomerImporter importer) {
+        this.importer = importer;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                importFile(Path.of(arg));
+            }
+        }
+    }
+
+    private void importFile(Path file) throws IOException {
+        Path errorFile = file.resolveSibling(file.getFileName() + ".errors");
+        try (InputStream input = Files.newInputStream(file);
+             BufferedWriter errors = Files.newBufferedWriter(errorFile)) {
+            ImportReport report = importer.importCustomers(input, ImportFormat.fromFileName(file.toString()), new ImportListener() {
+                @Override
+                public void onProgress(ImportProgress progress) {
+                    log.info("{}: {} lines, {} imported, {} rejected, {} lines/s", file, progress.lines(),
+                            progress.imported(), progress.rejected(), progress.linesPerSecond());
+                }
+
+                @Override
+                public void onError(ImportError error) {
+                    try {
+                        errors.write(error.line() + "\t" + error.message());
+                        errors.newLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            if (report.getRejected() > 0) {
+                log.warn("{}: {} lines rejected, see {}", file, report.getRejected(), errorFile);
+            }
+        }
+    }
+}
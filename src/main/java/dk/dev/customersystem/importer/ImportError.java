@@ -0,0 +1,5 @@
+package dk.dev.customersystem.importer;
+
+/** Why the customer on a line of the import file was not stored. */
+public record ImportError(long line, String message) {
+}
@@ -0,0 +1,36 @@
+package dk.dev.customersystem.importer;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    /** Header line naming the columns, then one customer per line. */
+    CSV,
+
+    /** One customer per line, as written by the export endpoint. */
+    NDJSON;
+
+    public static ImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + fileName + ", expected .csv or .ndjson");
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            return CSV;
+        }
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import content type " + contentType);
+    }
+}
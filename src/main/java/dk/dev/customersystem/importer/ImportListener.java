@@ -0,0 +1,14 @@
+package dk.dev.customersystem.importer;
+
+/** Follows a running import. Called from the importing thread only. */
+public interface ImportListener {
+
+    ImportListener NONE = new ImportListener() {
+    };
+
+    default void onProgress(ImportProgress progress) {
+    }
+
+    default void onError(ImportError error) {
+    }
+}
@@ -0,0 +1,4 @@
+package dk.dev.customersystem.importer;
+
+public record ImportProgress(long lines, long imported, long rejected, long elapsedMillis, long linesPerSecond) {
+}
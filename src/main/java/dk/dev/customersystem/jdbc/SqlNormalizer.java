@@ -0,0 +1,64 @@
+package dk.dev.customersystem.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a statement to its shape, so that executions differing only in literals share one
+ * entry: whitespace is collapsed, string and numeric literals become {@code ?} and
+ * {@code IN} lists collapse to a single placeholder.
+ */
+final class SqlNormalizer {
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN ?\\(\\?(?: ?, ?\\?)+\\)");
+
+    private SqlNormalizer() {
+    }
+
+    static String normalize(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                result.append('?');
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!result.isEmpty() && i < length) {
+                    result.append(' ');
+                }
+            } else if (Character.isDigit(c) && !partOfIdentifier(result)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                result.append('?');
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return IN_LIST.matcher(result).replaceAll("IN (?)");
+    }
+
+    private static boolean partOfIdentifier(StringBuilder preceding) {
+        if (preceding.isEmpty()) {
+            return false;
+        }
+        char previous = preceding.charAt(preceding.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '.' || previous == '"';
+    }
+}
@@ -0,0 +1,234 @@
+package dk.dev.customersystem.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement execution statistics keyed by normalized SQL, fed by {@link SqlStatsDataSource}.
+ * <p>
+ * Statements slower than the threshold are logged by a background thread, so a slow database
+ * never also slows down the callers through logging; when the log queue is full, entries are
+ * dropped and counted instead. Within a {@link #openScope() scope}, usually one web request,
+ * the same statement executed at least the N+1 threshold times is recorded as an N+1 suspect.
+ */
+@Slf4j
+public class SqlStatistics implements Closeable {
+
+    private static final String OTHER = "<other statements>";
+    private static final int SLOW_LOG_QUEUE_SIZE = 1024;
+
+    private final long slowQueryThresholdNanos;
+    private final int nPlusOneThreshold;
+    private final int maxStatements;
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Suspect> suspects = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<String, Integer>> scope = new ThreadLocal<>();
+    private final LongAdder droppedSlowQueryLogs = new LongAdder();
+    private final ThreadPoolExecutor slowQueryLog;
+
+    public SqlStatistics(Duration slowQueryThreshold, int nPlusOneThreshold, int maxStatements) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxStatements = maxStatements;
+        this.slowQueryLog = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SLOW_LOG_QUEUE_SIZE),
+                Thread.ofPlatform().name("slow-query-log").daemon().factory(),
+                (task, executor) -> droppedSlowQueryLogs.increment());
+    }
+
+    /** Resolves the entry for a statement once, when it is prepared. */
+    Entry entryFor(String sql) {
+        String key = normalized.get(sql);
+        if (key == null) {
+            key = SqlNormalizer.normalize(sql);
+            if (normalized.size() < maxStatements * 4) {
+                normalized.put(sql, key);
+            }
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= maxStatements) {
+            key = OTHER;
+        }
+        return entries.computeIfAbsent(key, Entry::new);
+    }
+
+    void record(Entry entry, String sql, long nanos, boolean failed) {
+        entry.record(nanos, failed);
+        Map<String, Integer> executions = scope.get();
+        if (executions != null) {
+            executions.merge(entry.sql, 1, Integer::sum);
+        }
+        if (nanos >= slowQueryThresholdNanos) {
+            slowQueryLog.execute(() -> log.warn("Slow SQL took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql));
+        }
+    }
+
+    /** Starts counting repeated statements on the current thread. */
+    public void openScope() {
+        scope.set(new HashMap<>());
+    }
+
+    /** Ends the current scope and records its N+1 suspects under {@code name}. */
+    public void closeScope(String name) {
+        Map<String, Integer> executions = scope.get();
+        scope.remove();
+        if (executions == null) {
+            return;
+        }
+        executions.forEach((sql, count) -> {
+            if (count >= nPlusOneThreshold) {
+                Suspect suspect = suspects.computeIfAbsent(name + '\n' + sql, key -> new Suspect(name, sql));
+                suspect.occurrences.increment();
+                suspect.maxExecutions.accumulateAndGet(count, Math::max);
+                slowQueryLog.execute(() -> log.warn("Possible N+1: {} executed {} times while handling {}",
+                        sql, count, name));
+            }
+        });
+    }
+
+    public List<StatementSnapshot> top(Order order, int limit) {
+        List<StatementSnapshot> snapshots = new ArrayList<>(entries.size());
+        entries.values().forEach(entry -> snapshots.add(entry.snapshot()));
+        snapshots.sort(order.comparator.reversed());
+        return snapshots.subList(0, Math.min(limit, snapshots.size()));
+    }
+
+    public List<SuspectSnapshot> nPlusOneSuspects() {
+        List<SuspectSnapshot> result = new ArrayList<>(suspects.size());
+        suspects.values().forEach(suspect -> result.add(new SuspectSnapshot(suspect.scope, suspect.sql,
+                suspect.occurrences.sum(), suspect.maxExecutions.get())));
+        result.sort(Comparator.comparingLong(SuspectSnapshot::occurrences).reversed());
+        return result;
+    }
+
+    public long droppedSlowQueryLogs() {
+        return droppedSlowQueryLogs.sum();
+    }
+
+    public void reset() {
+        entries.clear();
+        suspects.clear();
+    }
+
+    @Override
+    public void close() {
+        slowQueryLog.shutdown();
+    }
+
+    public enum Order {
+        TOTAL_TIME(Comparator.comparingDouble(StatementSnapshot::totalMillis)),
+        COUNT(Comparator.comparingLong(StatementSnapshot::count)),
+        MAX_TIME(Comparator.comparingDouble(StatementSnapshot::maxMillis)),
+        ROWS(Comparator.comparingLong(StatementSnapshot::rows));
+
+        private final Comparator<StatementSnapshot> comparator;
+
+        Order(Comparator<StatementSnapshot> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    public record StatementSnapshot(String sql, long count, long errors, long rows, double totalMillis,
+                                    double meanMillis, double maxMillis, double p50Millis, double p95Millis,
+                                    double p99Millis) {
+    }
+
+    public record SuspectSnapshot(String scope, String sql, long occurrences, long maxExecutions) {
+    }
+
+    /**
+     * Counters of one normalized statement. Latencies go into power-of-two microsecond buckets,
+     * so percentiles are upper bounds within a factor of two: coarse, but allocation and lock free.
+     */
+    static final class Entry {
+
+        private static final int BUCKETS = 40;
+
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+            long micros = nanos / 1_000;
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        void addRows(long count) {
+            rows.add(count);
+        }
+
+        StatementSnapshot snapshot() {
+            long[] buckets = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram.get(i);
+                total += buckets[i];
+            }
+            long executions = count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return new StatementSnapshot(sql, executions, errors.sum(), rows.sum(), totalMillis,
+                    executions == 0 ? 0 : totalMillis / executions, maxNanos.get() / 1e6,
+                    percentile(buckets, total, 0.50), percentile(buckets, total, 0.95),
+                    percentile(buckets, total, 0.99));
+        }
+
+        private static double percentile(long[] buckets, long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return (1L << i) / 1e3;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static final class Suspect {
+
+        private final String scope;
+        private final String sql;
+        private final LongAdder occurrences = new LongAdder();
+        private final AtomicLong maxExecutions = new AtomicLong();
+
+        Suspect(String scope, String sql) {
+            this.scope = scope;
+            this.sql = sql;
+        }
+    }
+}
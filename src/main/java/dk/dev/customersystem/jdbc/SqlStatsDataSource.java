@@ -0,0 +1,170 @@
+package dk.dev.customersystem.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Records every statement executed through the wrapped {@link DataSource} in {@link SqlStatistics}:
+ * execution time, failures, update counts and the rows read from each result set. Prepared
+ * statements resolve their entry once, when they are prepared; plain statements per execution.
+ */
+public class SqlStatsDataSource extends DelegatingDataSource {
+
+    private static final String UNKNOWN_BATCH = "<statement batch>";
+
+    private final SqlStatistics statistics;
+
+    public SqlStatsDataSource(DataSource targetDataSource, SqlStatistics statistics) {
+        super(targetDataSource);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlStatsDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatsDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final SqlStatistics.Entry preparedEntry;
+        private SqlStatistics.Entry lastEntry;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.preparedEntry = preparedSql != null ? statistics.entryFor(preparedSql) : null;
+            this.lastEntry = preparedEntry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getResultSet")) {
+                ResultSet resultSet = (ResultSet) SqlStatsDataSource.invoke(statement, method, args);
+                return wrap(resultSet, lastEntry);
+            }
+            if (!name.startsWith("execute")) {
+                return SqlStatsDataSource.invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : UNKNOWN_BATCH;
+            SqlStatistics.Entry entry = sql.equals(preparedSql) ? preparedEntry : statistics.entryFor(sql);
+            lastEntry = entry;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlStatsDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                statistics.record(entry, sql, System.nanoTime() - start, true);
+                throw e;
+            }
+            statistics.record(entry, sql, System.nanoTime() - start, false);
+            if (result instanceof ResultSet resultSet) {
+                return wrap(resultSet, entry);
+            }
+            if (result instanceof Number updated && updated.longValue() > 0) {
+                entry.addRows(updated.longValue());
+            } else if (result instanceof int[] batch) {
+                for (int updated : batch) {
+                    entry.addRows(Math.max(updated, 0));
+                }
+            } else if (result instanceof long[] batch) {
+                for (long updated : batch) {
+                    entry.addRows(Math.max(updated, 0));
+                }
+            }
+            return result;
+        }
+
+        private ResultSet wrap(ResultSet resultSet, SqlStatistics.Entry entry) {
+            return resultSet == null || entry == null ? resultSet
+                    : proxy(ResultSet.class, new ResultSetHandler(resultSet, entry));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final SqlStatistics.Entry entry;
+        private long rows;
+        private boolean closed;
+
+        ResultSetHandler(ResultSet resultSet, SqlStatistics.Entry entry) {
+            this.resultSet = resultSet;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatsDataSource.invoke(resultSet, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if ((Boolean) result) {
+                        rows++;
+                    }
+                }
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        entry.addRows(rows);
+                    }
+                }
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dk.dev.customersystem.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+
+import java.io.IOException;
+
+/**
+ * Reads a customer in one pass, whatever the position of its {@code type}: fields are collected
+ * first and the subtype is only created at the end of the object, so nothing is buffered.
+ */
+final class CustomerDtoDeserializer<T extends CustomerDto> extends StdDeserializer<T> {
+
+    CustomerDtoDeserializer(Class<T> type) {
+        super(type);
+    }
+
+    @Override
+    public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return handledType().cast(context.handleUnexpectedToken(handledType(), parser));
+        }
+        String type = null;
+        Long id = null;
+        String name = null;
+        String family = null;
+        String phoneNumber = null;
+        String nationality = null;
+        String industry = null;
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "type" -> type = readString(parser, context);
+                case "id" -> id = readLong(parser, context);
+                case "name" -> name = readString(parser, context);
+                case "family" -> family = readString(parser, context);
+                case "phoneNumber" -> phoneNumber = readString(parser, context);
+                case "nationality" -> nationality = readString(parser, context);
+                case "industry" -> industry = readString(parser, context);
+                default -> context.handleUnknownProperty(parser, this, handledType(), field);
+            }
+        }
+        CustomerDto customer;
+        if ("REAL".equals(type)) {
+            RealCustomerDto real = new RealCustomerDto();
+            real.setNationality(nationality);
+            customer = real;
+        } else if ("LEGAL".equals(type)) {
+            LegalCustomerDto legal = new LegalCustomerDto();
+            legal.setIndustry(industry);
+            customer = legal;
+        } else if (type == null) {
+            return context.reportInputMismatch(this, "Missing type id when trying to resolve subtype of %s: missing property 'type'",
+                    handledType().getName());
+        } else {
+            return context.reportInputMismatch(this, "Could not resolve type id '%s' as a subtype of %s", type,
+                    handledType().getName());
+        }
+        if (!handledType().isInstance(customer)) {
+            return context.reportInputMismatch(this, "Type id '%s' is not a subtype of %s", type, handledType().getName());
+        }
+        customer.setId(id);
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setPhoneNumber(phoneNumber);
+        return handledType().cast(customer);
+    }
+
+    // The type id is read with the other fields.
+    @Override
+    public Object deserializeWithType(JsonParser parser, DeserializationContext context,
+                                      TypeDeserializer typeDeserializer) throws IOException {
+        return deserialize(parser, context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<T> handledType() {
+        return (Class<T>) super.handledType();
+    }
+
+    private static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, String.class);
+        };
+    }
+
+    private static Long readLong(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Long.class);
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package dk.dev.customersystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.enums.CustomerType;
+
+import java.io.IOException;
+
+/** Writes names and type ids from pre-encoded {@link SerializedString}s, in declaration order. */
+final class CustomerDtoSerializer extends StdSerializer<CustomerDto> {
+
+    static final SerializedString TYPE = new SerializedString("type");
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString NAME = new SerializedString("name");
+    static final SerializedString FAMILY = new SerializedString("family");
+    static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+    static final SerializedString NATIONALITY = new SerializedString("nationality");
+    static final SerializedString INDUSTRY = new SerializedString("industry");
+    private static final SerializedString REAL = new SerializedString("REAL");
+    private static final SerializedString LEGAL = new SerializedString("LEGAL");
+
+    CustomerDtoSerializer() {
+        super(CustomerDto.class);
+    }
+
+    @Override
+    public void serialize(CustomerDto customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(customer);
+        generator.writeFieldName(TYPE);
+        if (customer instanceof RealCustomerDto) {
+            generator.writeString(typeId(CustomerType.REAL));
+        } else if (customer instanceof LegalCustomerDto) {
+            generator.writeString(typeId(CustomerType.LEGAL));
+        } else {
+            provider.reportMappingProblem("Unsupported customer type %s", customer.getClass().getName());
+        }
+        generator.writeFieldName(ID);
+        if (customer.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(customer.getId().longValue());
+        }
+        writeString(generator, NAME, customer.getName());
+        writeString(generator, FAMILY, customer.getFamily());
+        writeString(generator, PHONE_NUMBER, customer.getPhoneNumber());
+        if (customer instanceof RealCustomerDto real) {
+            writeString(generator, NATIONALITY, real.getNationality());
+        } else if (customer instanceof LegalCustomerDto legal) {
+            writeString(generator, INDUSTRY, legal.getIndustry());
+        }
+        generator.writeEndObject();
+    }
+
+    // The type id is part of every object already.
+    @Override
+    public void serializeWithType(CustomerDto customer, JsonGenerator generator, SerializerProvider provider,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(customer, generator, provider);
+    }
+
+    static SerializedString typeId(CustomerType type) {
+        return type == CustomerType.REAL ? REAL : LEGAL;
+    }
+
+    static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dk.dev.customersystem.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.model.CustomerView;
+
+/**
+ * Hand-written JSON codec for the {@link CustomerDto} hierarchy, replacing the reflective bean
+ * serializers and the polymorphic type handling of {@code @JsonTypeInfo}. The JSON is the same,
+ * except that {@code type} is written once, first. {@link CustomerView} projections are written
+ * as the DTO of their type.
+ */
+public class CustomerJsonModule extends SimpleModule {
+
+    public CustomerJsonModule() {
+        super(CustomerJsonModule.class.getSimpleName());
+        CustomerDtoSerializer serializer = new CustomerDtoSerializer();
+        addSerializer(CustomerDto.class, serializer);
+        addSerializer(RealCustomerDto.class, serializer);
+        addSerializer(LegalCustomerDto.class, serializer);
+        addSerializer(CustomerView.class, new CustomerViewSerializer());
+        addDeserializer(CustomerDto.class, new CustomerDtoDeserializer<>(CustomerDto.class));
+        addDeserializer(RealCustomerDto.class, new CustomerDtoDeserializer<>(RealCustomerDto.class));
+        addDeserializer(LegalCustomerDto.class, new CustomerDtoDeserializer<>(LegalCustomerDto.class));
+    }
+}
@@ -0,0 +1,44 @@
+package dk.dev.customersystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.CustomerView;
+
+import java.io.IOException;
+
+import static dk.dev.customersystem.json.CustomerDtoSerializer.FAMILY;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.ID;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.INDUSTRY;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.NAME;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.NATIONALITY;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.PHONE_NUMBER;
+import static dk.dev.customersystem.json.CustomerDtoSerializer.TYPE;
+
+/** Writes a {@link CustomerView} exactly as {@link CustomerDtoSerializer} writes the matching DTO. */
+final class CustomerViewSerializer extends StdSerializer<CustomerView> {
+
+    CustomerViewSerializer() {
+        super(CustomerView.class);
+    }
+
+    @Override
+    public void serialize(CustomerView customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(customer);
+        generator.writeFieldName(TYPE);
+        generator.writeString(CustomerDtoSerializer.typeId(customer.type()));
+        generator.writeFieldName(ID);
+        generator.writeNumber(customer.id());
+        CustomerDtoSerializer.writeString(generator, NAME, customer.name());
+        CustomerDtoSerializer.writeString(generator, FAMILY, customer.family());
+        CustomerDtoSerializer.writeString(generator, PHONE_NUMBER, customer.phoneNumber());
+        if (customer.type() == CustomerType.REAL) {
+            CustomerDtoSerializer.writeString(generator, NATIONALITY, customer.nationality());
+        } else {
+            CustomerDtoSerializer.writeString(generator, INDUSTRY, customer.industry());
+        }
+        generator.writeEndObject();
+    }
+}
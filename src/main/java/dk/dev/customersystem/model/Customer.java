@@ -12,7 +12,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -43,7 +45,8 @@ import lombok.experimental.SuperBuilder;
 
 public abstract class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_id_seq")
+    @SequenceGenerator(name = "customer_id_seq", sequenceName = "customer_id_seq", allocationSize = 50)
     private Long id;
 
     @NotEmpty(message = "name can not be empty.")
@@ -60,4 +63,9 @@ public abstract class Customer {
     private String phoneNumber;
     @Enumerated(EnumType.STRING)
     private CustomerType type;
+
+    // Set by the DAOs: 0 when stored, incremented by every update. Writes that carry a
+    // version only apply if it is still the stored one.
+    @Version
+    private Long version;
 }
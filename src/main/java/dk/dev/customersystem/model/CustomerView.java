@@ -0,0 +1,23 @@
+package dk.dev.customersystem.model;
+
+import dk.dev.customersystem.enums.CustomerType;
+
+/**
+ * Read-only projection of a customer for reads that only render it. DAOs that can build it
+ * straight from their rows skip the entity, and it is written as the JSON of the customer DTOs,
+ * so no DTO copy is made either. {@code nationality} is only set for real customers and
+ * {@code industry} only for legal ones.
+ */
+public record CustomerView(CustomerType type, long id, String name, String family, String phoneNumber,
+                           String nationality, String industry) {
+
+    public static CustomerView of(Customer customer) {
+        if (customer instanceof RealCustomer real) {
+            return new CustomerView(CustomerType.REAL, real.getId(), real.getName(), real.getFamily(),
+                    real.getPhoneNumber(), real.getNationality(), null);
+        }
+        LegalCustomer legal = (LegalCustomer) customer;
+        return new CustomerView(CustomerType.LEGAL, legal.getId(), legal.getName(), legal.getFamily(),
+                legal.getPhoneNumber(), null, legal.getIndustry());
+    }
+}
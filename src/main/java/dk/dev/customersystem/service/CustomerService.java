@@ -1,25 +1,68 @@
 package dk.dev.customersystem.service;
 
+import dk.dev.customersystem.changes.CustomerChangeFeed;
 import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.dao.version.ChangeCountingCustomerDao;
 import dk.dev.customersystem.enums.CustomerType;
 import dk.dev.customersystem.exception.CustomerNotFoundException;
 import dk.dev.customersystem.exception.DuplicatedCustomerException;
 import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.CustomerView;
 import dk.dev.customersystem.model.RealCustomer;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("customer.service")
 public class CustomerService {
 
     private final CustomerDao customerDao;
+    private final Validator validator;
+    // Concurrent lookups of the same id or name share one DAO call, so a burst of identical
+    // requests, e.g. after a cache flush, reaches the database once.
+    private final SingleFlight<Long, Optional<Customer>> byId = new SingleFlight<>();
+    private final SingleFlight<String, List<Customer>> byName = new SingleFlight<>();
+    private final Optional<ChangeCountingCustomerDao> collectionVersion;
+    private final CustomerChangeFeed changes;
+
     @Autowired
-    public CustomerService(CustomerDao customerDao) {
+    public CustomerService(CustomerDao customerDao, Validator validator, CustomerChangeFeed changes,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
         this.customerDao = customerDao;
+        this.validator = validator;
+        this.changes = changes;
+        this.collectionVersion = ForwardingCustomerDao.find(customerDao, ChangeCountingCustomerDao.class);
+        meterRegistry.ifAvailable(registry -> {
+            registerCoalesced(registry, byId, "getCustomerById");
+            registerCoalesced(registry, byName, "findByName");
+        });
+    }
+
+    private static void registerCoalesced(MeterRegistry registry, SingleFlight<?, ?> singleFlight, String method) {
+        FunctionCounter.builder("customer.service.coalesced", singleFlight, SingleFlight::coalescedCount)
+                .description("Calls that shared the result of an identical call already in flight")
+                .tag("method", method)
+                .register(registry);
     }
 
 //    @PostConstruct
@@ -37,41 +80,131 @@ public class CustomerService {
 //    }
 
     public Customer addCustomer(Customer customer) {
-        if (customerDao.existsByNameIgnoreCaseAndFamilyIgnoreCase(customer.getName(), customer.getFamily())) {
-            throw new DuplicatedCustomerException("Customer with full name " + customer.getName() + " " + customer.getFamily() +" already exists");
+        Customer added = customerDao.insertIfAbsent(customer)
+                .orElseThrow(() -> new DuplicatedCustomerException(duplicatedMessage(customer)));
+        changes.created(added);
+        return added;
+    }
+
+    /**
+     * Stores every valid, non-duplicated customer of the batch with one bulk write.
+     * Returns the failure message of each rejected item keyed by its index; accepted
+     * items get their generated id set in place.
+     */
+    public Map<Integer, String> addCustomers(List<Customer> customers) {
+        Map<Integer, String> failures = new HashMap<>();
+        Set<String> fullNames = new HashSet<>();
+        List<Customer> accepted = new ArrayList<>(customers.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+            if (!violations.isEmpty()) {
+                failures.put(i, "Validation error: " + violations.stream()
+                        .map(violation -> "Property: " + violation.getPropertyPath() + " ,Message :" + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+            } else if (!fullNames.add(fullNameKey(customer))
+                    || customerDao.existsByNameIgnoreCaseAndFamilyIgnoreCase(customer.getName(), customer.getFamily())) {
+                failures.put(i, duplicatedMessage(customer));
+            } else {
+                customer.setId(null);
+                accepted.add(customer);
+                acceptedIndexes.add(i);
+            }
+        }
+        try {
+            customerDao.saveAll(accepted).forEach(changes::created);
+        } catch (DuplicatedCustomerException e) {
+            // A concurrent writer took one of the full names after the check above: settle the batch item by item.
+            for (int i = 0; i < accepted.size(); i++) {
+                Customer customer = accepted.get(i);
+                if (customer.getId() != null && customerDao.existsById(customer.getId())) {
+                    changes.created(customer);
+                    continue;
+                }
+                Optional<Customer> inserted = customerDao.insertIfAbsent(customer);
+                if (inserted.isEmpty()) {
+                    failures.put(acceptedIndexes.get(i), duplicatedMessage(customer));
+                } else {
+                    // The DAO may have stored a copy: keep the id set in place as documented.
+                    customer.setId(inserted.get().getId());
+                    customer.setVersion(inserted.get().getVersion());
+                    changes.created(inserted.get());
+                }
+            }
         }
-        return customerDao.save(customer);
+        return failures;
     }
 
     public Customer updateCustomer(Long id, Customer updatedCustomer) {
-        if (customerDao.existsById(id)) {
-            updatedCustomer.setId(id);
-            return customerDao.save(updatedCustomer);
+        updatedCustomer.setId(id);
+        if (customerDao.update(updatedCustomer) == 0) {
+            return null;
         }
-        return null;
+        changes.updated(updatedCustomer);
+        return updatedCustomer;
     }
 
     public void deleteCustomer(Long id) {
-        if (customerDao.existsById(id)) {
-            customerDao.deleteById(id);
-        }else
-            throw new CustomerNotFoundException("Customer with id " + id + " not found");
+        long version = customerDao.removeById(id)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer with id " + id + " not found"));
+        changes.deleted(id, version);
     }
 
     public List<Customer> getAllCustomers() {
         return customerDao.findAll();
     }
 
+    public List<Customer> getCustomerPage(Long afterId, int limit) {
+        return customerDao.findPage(afterId, limit);
+    }
+
+    public void forEachCustomer(Consumer<? super Customer> action) {
+        customerDao.forEachCustomer(action);
+    }
+
+    public List<CustomerView> getCustomerViewPage(Long afterId, int limit) {
+        return customerDao.findViewPage(afterId, limit);
+    }
+
+    public void forEachCustomerView(Consumer<? super CustomerView> action) {
+        customerDao.forEachView(action);
+    }
+
+    /** Changes whenever a customer was written, or empty when writes are not counted. */
+    public Optional<String> getCollectionVersion() {
+        return collectionVersion.map(ChangeCountingCustomerDao::collectionVersion);
+    }
+
     public Optional<Customer> getCustomerById(Long id) {
-        return customerDao.findById(id);
+        if (id == null) {
+            return customerDao.findById(id);
+        }
+        return byId.execute(id, () -> customerDao.findById(id));
+    }
+
+    public List<Customer> getCustomersByIds(Collection<Long> ids) {
+        return customerDao.findAllById(ids);
     }
 
     public List<Customer> findByName(String name) {
-        List<Customer> customers = customerDao.findByNameIgnoreCase(name);
+        List<Customer> customers = name == null ? customerDao.findByNameIgnoreCase(name)
+                : byName.execute(name.toLowerCase(Locale.ROOT), () -> customerDao.findByNameIgnoreCase(name));
         if (customers.isEmpty()){
             throw new CustomerNotFoundException("Customer with name " + name + " not found");
         }else
             return customers;
     }
 
+    public List<Customer> searchCustomers(String query, int limit, boolean fuzzy) {
+        return customerDao.search(query, limit, fuzzy);
+    }
+
+    private static String duplicatedMessage(Customer customer) {
+        return "Customer with full name " + customer.getName() + " " + customer.getFamily() + " already exists";
+    }
+
+    private static String fullNameKey(Customer customer) {
+        return customer.getName().toLowerCase(Locale.ROOT) + '\n' + customer.getFamily().toLowerCase(Locale.ROOT);
+    }
 }
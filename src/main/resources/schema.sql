@@ -1,9 +1,18 @@
+CREATE SEQUENCE customer_id_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE customer(
-    id BIGINT AUTO_INCREMENT PRIMARY KEY ,
+    id BIGINT PRIMARY KEY ,
     name  VARCHAR(30) NOT NULL ,
     family VARCHAR(50) NOT NULL ,
     phone_number VARCHAR(25),
-    type VARCHAR(10)
+    type VARCHAR(10),
+    -- Starts at 0 and is bumped by every update; served as the ETag of the customer.
+    version BIGINT DEFAULT 0 NOT NULL,
+    name_lower VARCHAR(30) GENERATED ALWAYS AS (LOWER(name)),
+    family_lower VARCHAR(50) GENERATED ALWAYS AS (LOWER(family)),
+    -- H2 has no expression indexes: case-insensitive lookups must compare name_lower and family_lower,
+    -- which this constraint's index covers, name_lower alone as its leading column.
+    CONSTRAINT uk_customer_full_name UNIQUE (name_lower, family_lower)
 );
 
 CREATE TABLE real_customer(
@@ -0,0 +1,74 @@
+package dk.dev.customersystem.architecture;
+
+import dk.dev.customersystem.SpringAppRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Request threads are virtual, and on Java 21 a virtual thread that blocks inside a
+ * {@code synchronized} method or block pins its carrier thread. This test scans the compiled
+ * application classes for monitors so they cannot creep back in. Use a
+ * {@link java.util.concurrent.locks.ReentrantLock} instead.
+ */
+class NoCarrierPinningTest {
+
+    @Test
+    void applicationClassesDoNotUseMonitors() throws IOException, URISyntaxException {
+        Path classes = Path.of(SpringAppRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> violations = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    new ClassReader(in).accept(new MonitorFinder(violations), ClassReader.SKIP_DEBUG);
+                }
+            }
+        }
+        assertThat(violations).isEmpty();
+    }
+
+    private static final class MonitorFinder extends ClassVisitor {
+
+        private final List<String> violations;
+        private String className;
+
+        MonitorFinder(List<String> violations) {
+            super(Opcodes.ASM9);
+            this.violations = violations;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            String method = className + "#" + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                violations.add(method + " is synchronized");
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        violations.add(method + " has a synchronized block");
+                    }
+                }
+            };
+        }
+    }
+}
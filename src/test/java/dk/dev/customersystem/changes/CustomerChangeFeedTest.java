@@ -0,0 +1,82 @@
+package dk.dev.customersystem.changes;
+
+import dk.dev.customersystem.dto.CustomerChangePage;
+import dk.dev.customersystem.enums.ChangeType;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.RealCustomer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeFeedTest {
+
+    @Test
+    void readsTheChangesAfterACursorInOrder() {
+        CustomerChangeFeed feed = new CustomerChangeFeed(8);
+        long start = feed.latestSequence();
+        long created = feed.created(customer(1L, "Ada"));
+        feed.updated(customer(1L, "Augusta"));
+        feed.deleted(1L, 0L);
+
+        CustomerChangePage page = feed.read(start, 2);
+        assertThat(page.getItems()).extracting(CustomerChange::type)
+                .containsExactly(ChangeType.CREATED, ChangeType.UPDATED);
+        assertThat(page.getItems().get(1).customer().name()).isEqualTo("Augusta");
+        assertThat(page.getNextCursor()).isEqualTo(created + 1);
+        assertThat(page.isTruncated()).isFalse();
+
+        CustomerChangePage rest = feed.read(page.getNextCursor(), 10);
+        assertThat(rest.getItems()).singleElement().satisfies(change -> {
+            assertThat(change.type()).isEqualTo(ChangeType.DELETED);
+            assertThat(change.customer()).isNull();
+            assertThat(change.version()).isEqualTo(1L);
+        });
+        assertThat(feed.read(rest.getNextCursor(), 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void reportsCursorsTheBufferNoLongerCovers() {
+        CustomerChangeFeed feed = new CustomerChangeFeed(4);
+        long start = feed.latestSequence();
+        for (long id = 1; id <= 10; id++) {
+            feed.created(customer(id, "Customer" + id));
+        }
+
+        CustomerChangePage page = feed.read(start, 10);
+        assertThat(page.isTruncated()).isTrue();
+        assertThat(page.getItems()).extracting(CustomerChange::customerId).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(feed.read(0, 10).isTruncated()).isTrue();
+        assertThat(feed.read(Long.MAX_VALUE, 10).isTruncated()).isTrue();
+    }
+
+    @Test
+    void longPollReturnsOnceAChangeIsPublished() throws Exception {
+        CustomerChangeFeed feed = new CustomerChangeFeed(8);
+        long start = feed.latestSequence();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<CustomerChangePage> poll = executor.submit(() -> feed.await(start, 10, Duration.ofSeconds(10)));
+            Thread.sleep(50);
+            feed.created(customer(1L, "Ada"));
+
+            assertThat(poll.get().getItems()).extracting(CustomerChange::customerId).containsExactly(1L);
+        }
+        assertThat(feed.await(feed.latestSequence(), 10, Duration.ofMillis(10)).getItems()).isEmpty();
+    }
+
+    private static RealCustomer customer(long id, String name) {
+        RealCustomer customer = RealCustomer.builder()
+                .name(name)
+                .family("Lovelace")
+                .phoneNumber("+44 20 1234 5678")
+                .type(CustomerType.REAL)
+                .nationality("British")
+                .build();
+        customer.setId(id);
+        return customer;
+    }
+}
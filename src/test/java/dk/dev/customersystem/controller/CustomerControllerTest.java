@@ -0,0 +1,97 @@
+package dk.dev.customersystem.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controller")
+@AutoConfigureMockMvc
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getAnswersNotModifiedWhileTheETagMatches() throws Exception {
+        long id = create("Grace", "Hopper");
+        String etag = etagOf("/api/v1/customers/" + id);
+        mockMvc.perform(get("/api/v1/customers/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String listEtag = etagOf("/api/v1/customers");
+        mockMvc.perform(get("/api/v1/customers").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+                .andExpect(status().isNotModified());
+        create("Linus", "Torvalds");
+        mockMvc.perform(get("/api/v1/customers").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void putOnlyAppliesWhileIfMatchIsTheCurrentVersion() throws Exception {
+        long id = create("Alan", "Turing");
+        String etag = etagOf("/api/v1/customers/" + id);
+
+        update(id, "\"7\"").andExpect(status().isPreconditionFailed());
+        update(id, "not-a-version").andExpect(status().isPreconditionFailed());
+        update(id, etag).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        update(id, etag).andExpect(status().isPreconditionFailed());
+        update(id, "*").andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void putWithIfMatchOnAMissingCustomerFailsThePrecondition() throws Exception {
+        update(Long.MAX_VALUE, "\"0\"").andExpect(status().isPreconditionFailed());
+        update(Long.MAX_VALUE, "*").andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void batchRejectsEmptyOversizedAndNullItems() throws Exception {
+        String ada = realCustomer("Ada", "Lovelace");
+        String oversized = "[" + String.join(",", Collections.nCopies(1001, ada)) + "]";
+        for (String body : new String[]{"[]", "[null]", "[" + ada + ",null]", oversized}) {
+            mockMvc.perform(post("/api/v1/customers/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private long create(String name, String family) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/customers").contentType(MediaType.APPLICATION_JSON)
+                        .content(realCustomer(name, family)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private ResultActions update(long id, String ifMatch) throws Exception {
+        return mockMvc.perform(put("/api/v1/customers/{id}", id).header(HttpHeaders.IF_MATCH, ifMatch)
+                .contentType(MediaType.APPLICATION_JSON).content(realCustomer("Alan", "Turing")));
+    }
+
+    private String etagOf(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static String realCustomer(String name, String family) {
+        return "{\"type\":\"REAL\",\"name\":\"" + name + "\",\"family\":\"" + family + "\",\"nationality\":\"British\"}";
+    }
+}
@@ -0,0 +1,49 @@
+package dk.dev.customersystem.dao.cache;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingCustomerDaoTest {
+
+    @Test
+    void bulkLoadRacingAnUpdateDoesNotCacheTheOlderCustomer() {
+        CustomerInMemoryDao store = new CustomerInMemoryDao(Validation.buildDefaultValidatorFactory().getValidator());
+        Customer ada = store.insertIfAbsent(realCustomer("Ada", "Lovelace")).orElseThrow();
+        Runnable[] duringLoad = {() -> { }};
+        CustomerDao slowStore = new ForwardingCustomerDao(store) {
+            @Override
+            public List<Customer> findAllById(Collection<Long> ids) {
+                List<Customer> loaded = super.findAllById(ids);
+                duringLoad[0].run();
+                return loaded;
+            }
+        };
+        CachingCustomerDao dao = new CachingCustomerDao(slowStore, 100, null);
+        duringLoad[0] = () -> {
+            RealCustomer renamed = realCustomer("Ada", "King");
+            renamed.setId(ada.getId());
+            dao.update(renamed);
+        };
+
+        assertThat(dao.findAllById(List.of(ada.getId()))).extracting(Customer::getFamily).containsExactly("Lovelace");
+
+        assertThat(dao.findById(ada.getId())).map(Customer::getFamily).contains("King");
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        RealCustomer customer = new RealCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        return customer;
+    }
+}
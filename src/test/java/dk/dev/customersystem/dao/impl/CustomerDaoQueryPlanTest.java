@@ -0,0 +1,234 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.exception.CustomerVersionConflictException;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.NestedTestConfiguration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.context.NestedTestConfiguration.EnclosingConfiguration.OVERRIDE;
+
+/**
+ * Runs every keyed DAO operation, then asks H2 to {@code EXPLAIN} each statement it prepared and
+ * fails on a full scan of a customer table. findAll, forEachCustomer and count read the whole
+ * table by design and are not exercised.
+ */
+class CustomerDaoQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN =
+            Pattern.compile("(?i)PUBLIC\\.(CUSTOMER|REAL_CUSTOMER|LEGAL_CUSTOMER)\\.tableScan");
+
+    @Nested
+    @NestedTestConfiguration(OVERRIDE)
+    @SpringBootTest(properties = {
+            "spring.profiles.active=jdbc",
+            "spring.datasource.url=jdbc:h2:mem:planjdbc",
+            "customer.cache.enabled=false",
+            "customer.search.enabled=false"
+    })
+    @Import(StatementCaptureConfig.class)
+    class Jdbc extends PlanCheck {
+    }
+
+    @Nested
+    @NestedTestConfiguration(OVERRIDE)
+    @SpringBootTest(properties = {
+            "spring.profiles.active=jpa",
+            "spring.datasource.url=jdbc:h2:mem:planjpa",
+            "customer.cache.enabled=false",
+            "customer.search.enabled=false"
+    })
+    @Import(StatementCaptureConfig.class)
+    class Jpa extends PlanCheck {
+    }
+
+    abstract static class PlanCheck {
+
+        @Autowired
+        private CustomerDao customerDao;
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Autowired
+        private CapturedStatements capturedStatements;
+
+        @Test
+        void keyedOperationsDoNotScanCustomerTables() throws SQLException {
+            capturedStatements.clear();
+            exercise(customerDao);
+
+            List<String> statements = capturedStatements.explainable();
+            assertThat(statements).isNotEmpty();
+            try (Connection connection = dataSource.getConnection()) {
+                for (String sql : statements) {
+                    assertThat(plan(connection, sql)).as(sql).doesNotContainPattern(TABLE_SCAN);
+                }
+            }
+        }
+
+        private static void exercise(CustomerDao dao) {
+            Customer ada = dao.insertIfAbsent(realCustomer("Ada", "Lovelace")).orElseThrow();
+            assertThat(dao.insertIfAbsent(realCustomer("ADA", "lovelace"))).isEmpty();
+            List<Customer> batch = dao.saveAll(List.of(realCustomer("Grace", "Hopper"), legalCustomer("Acme", "Corp")));
+            Customer alan = dao.save(realCustomer("Alan", "Turing"));
+            alan.setPhoneNumber("+44 1234");
+            dao.save(alan);
+            RealCustomer renamed = realCustomer("Ada", "King");
+            renamed.setId(ada.getId());
+            assertThat(dao.update(renamed)).isEqualTo(1);
+            assertThat(renamed.getVersion()).isEqualTo(1L);
+            RealCustomer stale = realCustomer("Ada", "Byron");
+            stale.setId(ada.getId());
+            stale.setVersion(0L);
+            assertThatThrownBy(() -> dao.update(stale)).isInstanceOf(CustomerVersionConflictException.class);
+            assertThat(dao.findById(ada.getId())).isPresent();
+            assertThat(dao.findPage(null, 10)).isNotEmpty();
+            dao.findPage(ada.getId(), 10);
+            assertThat(dao.findViewPage(ada.getId(), 10)).isNotEmpty();
+            assertThat(dao.findByNameIgnoreCase("GRACE")).hasSize(1);
+            assertThat(dao.existsById(ada.getId())).isTrue();
+            assertThat(dao.existsByNameIgnoreCaseAndFamilyIgnoreCase("grace", "HOPPER")).isTrue();
+            assertThat(dao.removeById(ada.getId())).contains(renamed.getVersion());
+            dao.deleteById(batch.get(0).getId());
+        }
+
+        private static String plan(Connection connection, String sql) throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = explain.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    explain.setObject(i, 1);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        return RealCustomer.builder()
+                .name(name)
+                .family(family)
+                .type(CustomerType.REAL)
+                .nationality("British")
+                .build();
+    }
+
+    private static LegalCustomer legalCustomer(String name, String family) {
+        return LegalCustomer.builder()
+                .name(name)
+                .family(family)
+                .type(CustomerType.LEGAL)
+                .industry("Tech")
+                .build();
+    }
+
+    static class CapturedStatements {
+        private final Set<String> statements = ConcurrentHashMap.newKeySet();
+
+        void add(String sql) {
+            statements.add(sql);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        // Hibernate's HT_ id tables only hold the rows of one bulk statement, scanning them is fine.
+        List<String> explainable() {
+            return statements.stream()
+                    .filter(sql -> {
+                        String lower = sql.strip().toLowerCase(Locale.ROOT);
+                        return (lower.startsWith("select") || lower.startsWith("insert") || lower.startsWith("update")
+                                || lower.startsWith("delete") || lower.startsWith("merge")) && !lower.contains("ht_");
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static CapturedStatements capturedStatements() {
+            return new CapturedStatements();
+        }
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource(CapturedStatements capturedStatements) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? new CapturingDataSource(dataSource, capturedStatements)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    static class CapturingDataSource extends DelegatingDataSource {
+        private final CapturedStatements capturedStatements;
+
+        CapturingDataSource(DataSource target, CapturedStatements capturedStatements) {
+            super(target);
+            this.capturedStatements = capturedStatements;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capturing(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capturing(super.getConnection(username, password));
+        }
+
+        private Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args[0] instanceof String sql) {
+                            capturedStatements.add(sql);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.dao.journal.CustomerJournal;
+import dk.dev.customersystem.dao.memory.ObjectCustomerStore;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerInMemoryDaoTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final FlakyJournal journal = new FlakyJournal();
+    private final CustomerInMemoryDao dao = new CustomerInMemoryDao(validator, new ObjectCustomerStore(), journal);
+
+    @Test
+    void concurrentInsertsOfOneFullNameStoreExactlyOne() throws Exception {
+        int threads = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Customer>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                String name = i % 2 == 0 ? "Ada" : "ADA";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return dao.insertIfAbsent(realCustomer(name, "Lovelace"));
+                }));
+            }
+            start.countDown();
+            int inserted = 0;
+            for (Future<Optional<Customer>> result : results) {
+                inserted += result.get().isPresent() ? 1 : 0;
+            }
+            assertThat(inserted).isEqualTo(1);
+        }
+        assertThat(dao.findAll()).hasSize(1);
+        assertThat(dao.findPage(null, 10)).hasSize(1);
+    }
+
+    @Test
+    void failedInsertReleasesTheFullName() {
+        journal.failNextAppend = true;
+
+        assertThatThrownBy(() -> dao.insertIfAbsent(realCustomer("Ada", "Lovelace")))
+                .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(dao.existsByNameIgnoreCaseAndFamilyIgnoreCase("Ada", "Lovelace")).isFalse();
+        assertThat(dao.insertIfAbsent(realCustomer("Ada", "Lovelace"))).isPresent();
+    }
+
+    @Test
+    void failedSaveAndUpdateLeaveTheIndexesAsTheyWere() {
+        Customer ada = dao.insertIfAbsent(realCustomer("Ada", "Lovelace")).orElseThrow();
+
+        journal.failNextAppend = true;
+        assertThatThrownBy(() -> dao.save(realCustomer("Grace", "Hopper")))
+                .isInstanceOf(UncheckedIOException.class);
+        journal.failNextAppend = true;
+        RealCustomer renamed = realCustomer("Augusta", "King");
+        renamed.setId(ada.getId());
+        assertThatThrownBy(() -> dao.update(renamed)).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(dao.existsByNameIgnoreCaseAndFamilyIgnoreCase("Grace", "Hopper")).isFalse();
+        assertThat(dao.existsByNameIgnoreCaseAndFamilyIgnoreCase("Augusta", "King")).isFalse();
+        assertThat(dao.existsByNameIgnoreCaseAndFamilyIgnoreCase("Ada", "Lovelace")).isTrue();
+        assertThat(dao.findByNameIgnoreCase("Ada")).extracting(Customer::getId).containsExactly(ada.getId());
+        assertThat(dao.findByNameIgnoreCase("Augusta")).isEmpty();
+        assertThat(dao.findPage(null, 10)).extracting(Customer::getId).containsExactly(ada.getId());
+        assertThat(dao.insertIfAbsent(realCustomer("Grace", "Hopper"))).isPresent();
+    }
+
+    @Test
+    void failedBatchWaitsForTheCustomersItStored() {
+        dao.insertIfAbsent(realCustomer("Grace", "Hopper")).orElseThrow();
+        long before = journal.awaited.get();
+        RealCustomer ada = realCustomer("Ada", "Lovelace");
+
+        assertThatThrownBy(() -> dao.saveAll(List.of(ada, realCustomer("grace", "HOPPER"))))
+                .isInstanceOf(DuplicatedCustomerException.class);
+
+        assertThat(dao.existsById(ada.getId())).isTrue();
+        assertThat(journal.awaited.get()).isGreaterThan(before);
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        RealCustomer customer = new RealCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setNationality("British");
+        return customer;
+    }
+
+    /** Hands out increasing positions and fails the next append when asked to. */
+    private static final class FlakyJournal implements CustomerJournal {
+
+        private final AtomicLong appended = new AtomicLong();
+        private final AtomicLong awaited = new AtomicLong();
+        private volatile boolean failNextAppend;
+
+        @Override
+        public long appendPut(Customer customer) {
+            if (failNextAppend) {
+                failNextAppend = false;
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+            return appended.incrementAndGet();
+        }
+
+        @Override
+        public long appendDelete(long id) {
+            return appended.incrementAndGet();
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+            awaited.accumulateAndGet(position, Math::max);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.exception.CustomerNotFoundException;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import dk.dev.customersystem.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=jdbc",
+        "spring.datasource.url=jdbc:h2:mem:querycount",
+        "customer.cache.enabled=false"
+})
+class CustomerJdbcDaoQueryCountTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void existingCustomerIsReadUpdatedAndDeletedWithoutPreChecks() {
+        Customer customer = customerService.addCustomer(realCustomer("Ada", "Lovelace"));
+
+        statementCounter.reset();
+        assertThat(customerService.getCustomerById(customer.getId())).isPresent();
+        assertThat(statementCounter.get()).isEqualTo(1);
+
+        statementCounter.reset();
+        assertThat(customerService.updateCustomer(customer.getId(), realCustomer("Ada", "King"))).isNotNull();
+        assertThat(statementCounter.get()).isEqualTo(2);
+
+        statementCounter.reset();
+        customerService.deleteCustomer(customer.getId());
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    void missingCustomerIsReportedByTheWriteItself() {
+        statementCounter.reset();
+        assertThat(customerService.updateCustomer(Long.MAX_VALUE, realCustomer("Grace", "Hopper"))).isNull();
+        assertThat(statementCounter.get()).isEqualTo(1);
+
+        statementCounter.reset();
+        assertThatThrownBy(() -> customerService.deleteCustomer(Long.MAX_VALUE))
+                .isInstanceOf(CustomerNotFoundException.class);
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    void manyCustomersAreLookedUpWithOneStatement() {
+        Customer first = customerService.addCustomer(realCustomer("Alan", "Turing"));
+        Customer second = customerService.addCustomer(realCustomer("Edsger", "Dijkstra"));
+
+        statementCounter.reset();
+        assertThat(customerService.getCustomersByIds(List.of(second.getId(), Long.MAX_VALUE, first.getId())))
+                .extracting(Customer::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        return RealCustomer.builder()
+                .name(name)
+                .family(family)
+                .type(CustomerType.REAL)
+                .nationality("British")
+                .build();
+    }
+
+    static class StatementCounter {
+        private final AtomicInteger count = new AtomicInteger();
+
+        void increment() {
+            count.incrementAndGet();
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        int get() {
+            return count.get();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource(StatementCounter statementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? new CountingDataSource(dataSource, statementCounter)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    static class CountingDataSource extends DelegatingDataSource {
+        private final StatementCounter statementCounter;
+
+        CountingDataSource(DataSource target, StatementCounter statementCounter) {
+            super(target);
+            this.statementCounter = statementCounter;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            statementCounter.increment();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dk.dev.customersystem.dao.impl;
+
+import dk.dev.customersystem.changes.CustomerChange;
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dto.ImportReport;
+import dk.dev.customersystem.enums.ChangeType;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
+import dk.dev.customersystem.importer.CustomerImporter;
+import dk.dev.customersystem.importer.ImportFormat;
+import dk.dev.customersystem.importer.ImportListener;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A rolled-back batch leaves ids and versions on the JPA entities; the item by item fallback
+ * must still store, and publish, the customers themselves.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=jpa",
+        "spring.datasource.url=jdbc:h2:mem:jpabatch"
+})
+class CustomerJpaDaoTest {
+
+    @Autowired
+    private CustomerDao customerDao;
+
+    @Autowired
+    private CustomerImporter importer;
+
+    @Autowired
+    private CustomerChangeFeed changes;
+
+    @Test
+    void insertAfterAFailedBatchStoresTheCustomerItself() {
+        customerDao.insertIfAbsent(realCustomer("Alan", "Turing")).orElseThrow();
+        RealCustomer linus = realCustomer("Linus", "Torvalds");
+
+        assertThatThrownBy(() -> customerDao.saveAll(List.of(linus, realCustomer("ALAN", "turing"))))
+                .isInstanceOf(DuplicatedCustomerException.class);
+        Customer inserted = customerDao.insertIfAbsent(linus).orElseThrow();
+
+        assertThat(inserted.getId()).isNotNull().isEqualTo(linus.getId());
+        assertThat(customerDao.findById(inserted.getId())).map(Customer::getFamily).contains("Torvalds");
+    }
+
+    @Test
+    void importedBatchHittingADuplicatePublishesTheStoredCustomers() throws IOException {
+        customerDao.insertIfAbsent(realCustomer("Ada", "Lovelace")).orElseThrow();
+        long cursor = changes.latestSequence();
+        String csv = """
+                name,family,type,nationality,industry
+                Grace,Hopper,REAL,American,
+                Ada,Lovelace,REAL,British,
+                """;
+
+        ImportReport report = importer.importCustomers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, ImportListener.NONE);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(1);
+        List<CustomerChange> published = changes.read(cursor, 10).getItems();
+        assertThat(published).singleElement().satisfies(change -> {
+            assertThat(change.type()).isEqualTo(ChangeType.CREATED);
+            assertThat(customerDao.findById(change.customerId())).map(Customer::getName).contains("Grace");
+        });
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        return RealCustomer.builder()
+                .name(name)
+                .family(family)
+                .type(CustomerType.REAL)
+                .nationality("British")
+                .build();
+    }
+}
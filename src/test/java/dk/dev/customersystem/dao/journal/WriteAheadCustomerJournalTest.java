@@ -0,0 +1,91 @@
+package dk.dev.customersystem.dao.journal;
+
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.dao.memory.ObjectCustomerStore;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadCustomerJournalTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversFromSnapshotWrittenOnClose() {
+        WriteAheadCustomerJournal journal = journal();
+        CustomerInMemoryDao dao = new CustomerInMemoryDao(validator, new ObjectCustomerStore(), journal);
+        Customer ada = dao.save(realCustomer("Ada", "Lovelace"));
+        Customer acme = dao.save(legalCustomer("Acme", "Corp"));
+        dao.save(realCustomer("Grace", "Hopper"));
+        ada.setFamily("King");
+        dao.update(ada);
+        dao.removeById(acme.getId());
+        journal.close();
+
+        CustomerInMemoryDao recovered = new CustomerInMemoryDao(validator, new ObjectCustomerStore(), crashed(journal()));
+
+        assertThat(recovered.findAll()).hasSize(2);
+        assertThat(recovered.findById(ada.getId())).get().extracting(Customer::getFamily).isEqualTo("King");
+        assertThat(recovered.existsById(acme.getId())).isFalse();
+        assertThat(recovered.save(realCustomer("Alan", "Turing")).getId()).isEqualTo(4L);
+    }
+
+    @Test
+    void recoversFromLogAfterCrashAndDropsTornTail() throws IOException {
+        CustomerInMemoryDao dao = new CustomerInMemoryDao(validator, new ObjectCustomerStore(), crashed(journal()));
+        Customer ada = dao.save(realCustomer("Ada", "Lovelace"));
+        Customer acme = dao.save(legalCustomer("Acme", "Corp"));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+        }
+
+        CustomerInMemoryDao recovered = new CustomerInMemoryDao(validator, new ObjectCustomerStore(), crashed(journal()));
+
+        assertThat(recovered.findById(ada.getId())).isPresent();
+        assertThat(recovered.findById(acme.getId())).get().isInstanceOf(LegalCustomer.class)
+                .extracting(customer -> ((LegalCustomer) customer).getIndustry()).isEqualTo("Software");
+        assertThat(recovered.existsByNameIgnoreCaseAndFamilyIgnoreCase("ada", "lovelace")).isTrue();
+    }
+
+    private WriteAheadCustomerJournal journal() {
+        return new WriteAheadCustomerJournal(directory, FsyncPolicy.ALWAYS, Duration.ofMillis(100), Duration.ofHours(1));
+    }
+
+    // A journal that is never closed, like after a crash: no final snapshot is written.
+    private static WriteAheadCustomerJournal crashed(WriteAheadCustomerJournal journal) {
+        return journal;
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        RealCustomer customer = new RealCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setNationality("British");
+        return customer;
+    }
+
+    private static LegalCustomer legalCustomer(String name, String family) {
+        LegalCustomer customer = new LegalCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setIndustry("Software");
+        return customer;
+    }
+}
@@ -0,0 +1,64 @@
+package dk.dev.customersystem.dao.memory;
+
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCustomerStoreTest {
+
+    private final BinaryCustomerStore store = new BinaryCustomerStore(4096);
+
+    @Test
+    void roundTripsCustomersThroughBinaryRecords() {
+        store.compute(1, previous -> realCustomer(1, "Ada", "Lovelace", "British"));
+        LegalCustomer acme = new LegalCustomer();
+        acme.setId(2L);
+        acme.setName("Acme");
+        acme.setFamily("Corp");
+        store.compute(2, previous -> acme);
+
+        assertThat(store.get(1)).isInstanceOf(RealCustomer.class)
+                .extracting(customer -> ((RealCustomer) customer).getNationality()).isEqualTo("British");
+        assertThat(store.get(2)).isInstanceOf(LegalCustomer.class)
+                .extracting(Customer::getPhoneNumber, customer -> ((LegalCustomer) customer).getIndustry())
+                .containsExactly(null, null);
+        assertThat(store.computeIfPresent(3, previous -> realCustomer(3, "Grace", "Hopper", null))).isNull();
+        assertThat(store.contains(3)).isFalse();
+    }
+
+    @Test
+    void keepsLatestStateAcrossRewritesAndCompaction() {
+        for (int round = 0; round < 20; round++) {
+            String family = "Family" + round;
+            for (long id = 1; id <= 5_000; id++) {
+                long customerId = id;
+                store.compute(id, previous -> realCustomer(customerId, "Name" + customerId, family, "Danish"));
+            }
+        }
+        for (long id = 1; id <= 5_000; id += 2) {
+            store.computeIfPresent(id, previous -> null);
+        }
+
+        List<Customer> customers = new ArrayList<>();
+        store.forEach(customers::add);
+        assertThat(store.size()).isEqualTo(2_500);
+        assertThat(customers).hasSize(2_500).allMatch(customer -> customer.getId() % 2 == 0
+                && customer.getFamily().equals("Family19")
+                && customer.getName().equals("Name" + customer.getId()));
+    }
+
+    private static RealCustomer realCustomer(long id, String name, String family, String nationality) {
+        RealCustomer customer = new RealCustomer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setNationality(nationality);
+        return customer;
+    }
+}
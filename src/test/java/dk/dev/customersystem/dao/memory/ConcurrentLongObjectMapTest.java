@@ -0,0 +1,36 @@
+package dk.dev.customersystem.dao.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentLongObjectMapTest {
+
+    @Test
+    void behavesLikeAHashMapUnderRandomWritesAndRemovals() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(20_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                map.computeIfPresent(key, previous -> null);
+                expected.remove(key);
+            } else {
+                String value = "v" + i;
+                map.compute(key, previous -> value);
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -1_000; key < 19_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+        assertThat(map.get(Long.MIN_VALUE)).isNull();
+    }
+}
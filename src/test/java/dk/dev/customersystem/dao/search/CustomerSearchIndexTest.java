@@ -0,0 +1,61 @@
+package dk.dev.customersystem.dao.search;
+
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchIndexTest {
+
+    private static Customer customer(long id, String name, String family, String phoneNumber) {
+        RealCustomer customer = new RealCustomer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setPhoneNumber(phoneNumber);
+        return customer;
+    }
+
+    @Test
+    void findsCustomersByPrefixOfEveryWord() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.putAll(List.of(
+                customer(1, "Sören", "Kierkegaard", "+45 33 12 34 56"),
+                customer(2, "Sofie", "Kierkegaard", "+45 40 00 00 01"),
+                customer(3, "Anna Sofie", "Jensen", null)));
+
+        assertThat(index.search("kier", 10, false)).containsExactlyInAnyOrder(1, 2);
+        assertThat(index.search("soren kier", 10, false)).containsExactly(1);
+        assertThat(index.search("sof", 10, false)).containsExactlyInAnyOrder(2, 3);
+        assertThat(index.search("+45 3312", 10, false)).containsExactly(1);
+        assertThat(index.search("sof", 1, false)).hasSize(1);
+    }
+
+    @Test
+    void fuzzyMatchingToleratesTyposAndTranspositions() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.put(customer(1, "Jonathan", "Smith", null));
+
+        assertThat(index.search("jonahtan", 10, false)).isEmpty();
+        assertThat(index.search("jonahtan", 10, true)).containsExactly(1);
+        assertThat(index.search("smyth", 10, true)).containsExactly(1);
+        assertThat(index.search("xmith", 10, true)).isEmpty();
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceTheIndexedTerms() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.put(customer(1, "Ida", "Holm", null));
+        index.put(customer(1, "Ida", "Berg", null));
+
+        assertThat(index.search("holm", 10, false)).isEmpty();
+        assertThat(index.search("berg", 10, false)).containsExactly(1);
+
+        index.remove(1);
+        assertThat(index.search("ida", 10, false)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
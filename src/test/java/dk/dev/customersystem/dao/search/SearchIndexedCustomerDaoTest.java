@@ -0,0 +1,60 @@
+package dk.dev.customersystem.dao.search;
+
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.exception.DuplicatedCustomerException;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Starts the application with the default profiles over seeded rows, so the index must have been
+ * loaded into the fully decorated DAO bean by the time the context is ready.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchload",
+        "spring.sql.init.data-locations=classpath:search-seed.sql"
+})
+class SearchIndexedCustomerDaoTest {
+
+    @Autowired
+    private CustomerDao customerDao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void indexIsLoadedAtStartup() {
+        assertThat(customerDao.search("ada", 10, false)).extracting(Customer::getFamily).containsExactly("Lovelace");
+        assertThat(meterRegistry.get("customer.search.index.size").tag("implementation", "jpa").gauge().value()).isGreaterThan(0);
+    }
+
+    @Test
+    void indexesWhatAFailedBatchStored() {
+        SearchIndexedCustomerDao dao = new SearchIndexedCustomerDao(
+                new CustomerInMemoryDao(Validation.buildDefaultValidatorFactory().getValidator()), new CustomerSearchIndex());
+        dao.load();
+        dao.insertIfAbsent(realCustomer("Grace", "Hopper")).orElseThrow();
+
+        assertThatThrownBy(() -> dao.saveAll(List.of(realCustomer("Ada", "Lovelace"), realCustomer("grace", "HOPPER"))))
+                .isInstanceOf(DuplicatedCustomerException.class);
+
+        assertThat(dao.getIndex().search("lovelace", 10, false)).hasSize(1);
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        RealCustomer customer = new RealCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        return customer;
+    }
+}
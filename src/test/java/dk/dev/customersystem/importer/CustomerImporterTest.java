@@ -0,0 +1,95 @@
+package dk.dev.customersystem.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import dk.dev.customersystem.config.CustomerImportProperties;
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.dto.ImportReport;
+import dk.dev.customersystem.mapper.CustomerMapper;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.LegalCustomer;
+import dk.dev.customersystem.model.RealCustomer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerImporterTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final CustomerInMemoryDao dao = new CustomerInMemoryDao(validator);
+    private final CustomerImporter importer = importer();
+
+    @Test
+    void importsCsvAndReportsRejectedLines() throws IOException {
+        RealCustomer stored = new RealCustomer();
+        stored.setName("Grace");
+        stored.setFamily("Hopper");
+        dao.save(stored);
+        String csv = """
+                name,family,type,nationality,industry
+                Ada,Lovelace,REAL,British,
+                "Acme, Inc",Corp,LEGAL,,Anvils
+                ,Nameless,REAL,,
+                ADA,LOVELACE,REAL,,
+
+                Alan,Turing,ROBOT,,
+                grace,hopper,REAL,,
+                Linus,Torvalds,REAL,Finnish,
+                """;
+        List<ImportError> errors = new ArrayList<>();
+
+        ImportReport report = importer.importCustomers(stream(csv), ImportFormat.CSV, new ImportListener() {
+            @Override
+            public void onError(ImportError error) {
+                errors.add(error);
+            }
+        });
+
+        assertThat(report.getLines()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(errors).extracting(ImportError::line).containsExactly(4L, 5L, 7L, 8L);
+        assertThat(report.getErrors()).isEqualTo(errors);
+        assertThat(dao.findAll()).extracting(Customer::getName)
+                .containsExactlyInAnyOrder("Grace", "Ada", "Acme, Inc", "Linus");
+        assertThat(dao.findByNameIgnoreCase("Acme, Inc").get(0))
+                .isInstanceOfSatisfying(LegalCustomer.class, acme -> assertThat(acme.getIndustry()).isEqualTo("Anvils"));
+    }
+
+    @Test
+    void importsNdjsonAsWrittenByTheExport() throws IOException {
+        String ndjson = """
+                {"type":"REAL","id":7,"name":"Ada","family":"Lovelace","nationality":"British"}
+                {"type":"LEGAL","name":"Acme","family":"Corp","industry":"Anvils"}
+                not json
+                """;
+
+        ImportReport report = importer.importCustomers(stream(ndjson), ImportFormat.NDJSON, ImportListener.NONE);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportError::line).containsExactly(3L);
+        assertThat(dao.findAll()).extracting(Customer::getFamily).containsExactlyInAnyOrder("Lovelace", "Corp");
+    }
+
+    private CustomerImporter importer() {
+        CustomerImportProperties properties = new CustomerImportProperties();
+        properties.setChunkSize(2);
+        properties.setThreads(2);
+        return new CustomerImporter(dao, Mappers.getMapper(CustomerMapper.class), validator, new ObjectMapper(), properties,
+                new CustomerChangeFeed(16));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
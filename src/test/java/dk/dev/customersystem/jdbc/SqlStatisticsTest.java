@@ -0,0 +1,47 @@
+package dk.dev.customersystem.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatisticsTest {
+
+    @Test
+    void groupsStatementsThatDifferOnlyInLiterals() {
+        assertThat(SqlNormalizer.normalize("SELECT * FROM customer  WHERE id = 42 AND name = 'O''Brien'"))
+                .isEqualTo("SELECT * FROM customer WHERE id = ? AND name = ?");
+        assertThat(SqlNormalizer.normalize("SELECT * FROM customer WHERE id IN (1, 2, 3)"))
+                .isEqualTo("SELECT * FROM customer WHERE id IN (?)");
+        assertThat(SqlNormalizer.normalize("SELECT c1.id FROM legal_customer2 c1"))
+                .isEqualTo("SELECT c1.id FROM legal_customer2 c1");
+    }
+
+    @Test
+    void reportsStatementsRepeatedWithinOneScope() {
+        try (SqlStatistics statistics = new SqlStatistics(Duration.ofDays(1), 10, 100)) {
+            statistics.openScope();
+            for (int id = 1; id <= 12; id++) {
+                String sql = "SELECT * FROM customer WHERE id = " + id;
+                statistics.record(statistics.entryFor(sql), sql, 1_000_000, false);
+            }
+            statistics.record(statistics.entryFor("SELECT COUNT(*) FROM customer"), "SELECT COUNT(*) FROM customer",
+                    5_000_000, false);
+            statistics.closeScope("GET /api/v1/customers");
+
+            assertThat(statistics.top(SqlStatistics.Order.COUNT, 1))
+                    .singleElement()
+                    .satisfies(snapshot -> {
+                        assertThat(snapshot.sql()).isEqualTo("SELECT * FROM customer WHERE id = ?");
+                        assertThat(snapshot.count()).isEqualTo(12);
+                    });
+            assertThat(statistics.nPlusOneSuspects())
+                    .singleElement()
+                    .satisfies(suspect -> {
+                        assertThat(suspect.scope()).isEqualTo("GET /api/v1/customers");
+                        assertThat(suspect.maxExecutions()).isEqualTo(12);
+                    });
+        }
+    }
+}
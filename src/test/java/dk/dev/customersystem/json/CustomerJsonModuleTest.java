@@ -0,0 +1,77 @@
+package dk.dev.customersystem.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import dk.dev.customersystem.dto.CustomerDto;
+import dk.dev.customersystem.dto.LegalCustomerDto;
+import dk.dev.customersystem.dto.RealCustomerDto;
+import dk.dev.customersystem.enums.CustomerType;
+import dk.dev.customersystem.model.CustomerView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerJsonModuleTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new CustomerJsonModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void writesTheTypeFirstAndEveryProperty() throws Exception {
+        RealCustomerDto ada = new RealCustomerDto();
+        ada.setId(1L);
+        ada.setName("Ada");
+        ada.setFamily("Lovelace");
+        ada.setNationality("British");
+
+        assertThat(objectMapper.writerFor(CustomerDto.class).writeValueAsString(ada)).isEqualTo(
+                "{\"type\":\"REAL\",\"id\":1,\"name\":\"Ada\",\"family\":\"Lovelace\",\"phoneNumber\":null,\"nationality\":\"British\"}");
+    }
+
+    @Test
+    void writesViewsAsTheirDto() throws Exception {
+        LegalCustomerDto acme = new LegalCustomerDto();
+        acme.setId(2L);
+        acme.setName("Acme");
+        acme.setFamily("Corp");
+        acme.setPhoneNumber("+45 1234");
+        acme.setIndustry("Anvils");
+        CustomerView view = new CustomerView(CustomerType.LEGAL, 2, "Acme", "Corp", "+45 1234", null, "Anvils");
+
+        assertThat(objectMapper.writeValueAsString(view))
+                .isEqualTo(objectMapper.writerFor(CustomerDto.class).writeValueAsString(acme));
+    }
+
+    @Test
+    void readsPolymorphicListsWithTheTypeAnywhere() throws Exception {
+        String json = """
+                [{"name":"Acme","family":"Corp","industry":"Anvils","type":"LEGAL","unknown":{"a":[1]}},
+                 {"type":"REAL","id":"7","name":"Ada","family":"Lovelace","phoneNumber":null}]""";
+
+        List<CustomerDto> customers = objectMapper.readValue(json, new TypeReference<>() {
+        });
+
+        assertThat(customers.get(0)).isInstanceOfSatisfying(LegalCustomerDto.class, acme -> {
+            assertThat(acme.getName()).isEqualTo("Acme");
+            assertThat(acme.getIndustry()).isEqualTo("Anvils");
+        });
+        assertThat(customers.get(1)).isInstanceOfSatisfying(RealCustomerDto.class, ada -> {
+            assertThat(ada.getId()).isEqualTo(7L);
+            assertThat(ada.getFamily()).isEqualTo("Lovelace");
+        });
+    }
+
+    @Test
+    void rejectsMissingAndMismatchedTypes() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"name\":\"Ada\"}", CustomerDto.class))
+                .isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("{\"type\":\"LEGAL\"}", RealCustomerDto.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package dk.dev.customersystem.service;
+
+import dk.dev.customersystem.changes.CustomerChange;
+import dk.dev.customersystem.changes.CustomerChangeFeed;
+import dk.dev.customersystem.dao.CustomerDao;
+import dk.dev.customersystem.dao.ForwardingCustomerDao;
+import dk.dev.customersystem.dao.impl.CustomerInMemoryDao;
+import dk.dev.customersystem.enums.ChangeType;
+import dk.dev.customersystem.model.Customer;
+import dk.dev.customersystem.model.RealCustomer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerServiceTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void deletePublishedBeforeARacingUpdateStillCarriesTheNewerVersion() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        // Holds the update back between its write and its publication until the delete is published.
+        CustomerDao dao = new ForwardingCustomerDao(new CustomerInMemoryDao(validator)) {
+            @Override
+            public int update(Customer customer) {
+                int updated = super.update(customer);
+                written.countDown();
+                try {
+                    deleted.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return updated;
+            }
+        };
+        CustomerChangeFeed changes = new CustomerChangeFeed(16);
+        CustomerService service = new CustomerService(dao, validator, changes,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        Customer ada = service.addCustomer(realCustomer("Ada", "Lovelace"));
+        long cursor = changes.latestSequence();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Customer> update = executor.submit(
+                    () -> service.updateCustomer(ada.getId(), realCustomer("Augusta", "King")));
+            written.await();
+            service.deleteCustomer(ada.getId());
+            deleted.countDown();
+            update.get();
+        }
+
+        List<CustomerChange> published = changes.read(cursor, 10).getItems();
+        assertThat(published).extracting(CustomerChange::type)
+                .containsExactly(ChangeType.DELETED, ChangeType.UPDATED);
+        assertThat(published.get(0).version()).isGreaterThan(published.get(1).version());
+    }
+
+    private static RealCustomer realCustomer(String name, String family) {
+        RealCustomer customer = new RealCustomer();
+        customer.setName(name);
+        customer.setFamily(family);
+        customer.setNationality("British");
+        return customer;
+    }
+}
@@ -0,0 +1,56 @@
+package dk.dev.customersystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsForTheSameKeyShareOneExecution() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "Ada";
+            }));
+            started.await();
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (singleFlight.coalescedCount() < 10) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("Ada");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get()).isEqualTo("Ada");
+            }
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.execute(1L, () -> "Grace")).isEqualTo("Grace");
+    }
+}
@@ -0,0 +1,4 @@
+INSERT INTO customer (id, name, family, phone_number, type) VALUES (1, 'Ada', 'Lovelace', '+44 20 1234 5678', 'REAL');
+INSERT INTO real_customer (id, nationality) VALUES (1, 'British');
+INSERT INTO customer (id, name, family, phone_number, type) VALUES (2, 'Acme', 'Corp', '+1 555 0100', 'LEGAL');
+INSERT INTO legal_customer (id, industry) VALUES (2, 'Manufacturing');